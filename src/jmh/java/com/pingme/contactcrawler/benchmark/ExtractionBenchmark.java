@@ -0,0 +1,59 @@
+package com.pingme.contactcrawler.benchmark;
+
+import com.pingme.contactcrawler.crawler.PageBody;
+import com.pingme.contactcrawler.parser.ContactExtractor;
+import com.pingme.contactcrawler.parser.PageContacts;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+// Разбор одной страницы (~200 КБ русского текста) из байт ответа:
+//  - string  - было: всё тело декодируется в String, затем ContactExtractor;
+//  - decoder - тело декодируется порциями по 8 КБ (PageBodyReader без byte-parsing);
+//  - bytes   - стало: байтовый режим ContactExtractor, декодируются только найденные ссылки.
+// Результат - микросекунд на страницу, отдельно для UTF-8 и windows-1251
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ExtractionBenchmark {
+
+    @Param({"UTF-8", "windows-1251"})
+    public String charsetName;
+
+    private Charset charset;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        charset = Charset.forName(charsetName);
+
+        StringBuilder html = new StringBuilder("<html><head><title>Контакты компании</title></head><body>");
+        for (int i = 0; html.length() < 200_000; i++) {
+            html.append("<div class=\"item\"><h2>Филиал №").append(i).append("</h2>")
+                    .append("<p>Наш офис работает ежедневно с 9:00 до 18:00, без перерыва на обед.&nbsp;")
+                    .append("Звоните: +7&nbsp;(495)&nbsp;").append(100 + i % 900).append("-45-67</p>")
+                    .append("<p>Почта отдела продаж: sales").append(i).append("@example.ru</p>")
+                    .append("<a href=\"/филиалы/").append(i).append("\">Подробнее</a></div>\n");
+        }
+        html.append("</body></html>");
+        body = html.toString().getBytes(charset);
+    }
+
+    @Benchmark
+    public PageContacts string() {
+        PageContacts contacts = new PageContacts();
+        ContactExtractor.extract(new String(body, charset), contacts);
+        return contacts;
+    }
+
+    @Benchmark
+    public PageBody decoder() {
+        return PageBody.parse(body, charset, false);
+    }
+
+    @Benchmark
+    public PageBody bytes() {
+        return PageBody.parse(body, charset, true);
+    }
+}
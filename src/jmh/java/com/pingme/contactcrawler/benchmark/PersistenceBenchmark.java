@@ -0,0 +1,108 @@
+package com.pingme.contactcrawler.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+// Запись пакета контактов в H2 так, как её делает Hibernate:
+//  - identityRowByRow - было: id IDENTITY, каждая строка отдельным INSERT + чтение сгенерированного id;
+//  - sequenceBatch    - стало: id из последовательности с шагом 50, INSERT'ы одним JDBC batch.
+// Результат - строк в секунду
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    private static final int BATCH = 50;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private Connection connection;
+    private long nextId;
+    private long maxId;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("""
+                    create table contact_identity (
+                        id bigint generated by default as identity primary key,
+                        name varchar(255), website varchar(255), phones varchar(1000),
+                        email varchar(255), address varchar(255))""");
+            st.execute("""
+                    create table contact_sequence (
+                        id bigint primary key,
+                        name varchar(255), website varchar(255), phones varchar(1000),
+                        email varchar(255), address varchar(255))""");
+            st.execute("create sequence contact_sequence_seq start with 1 increment by " + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("drop all objects");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void identityRowByRow() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into contact_identity (name, website, phones, email, address) values (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < BATCH; i++) {
+                bind(ps, 1, i);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void sequenceBatch() throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into contact_sequence (id, name, website, phones, email, address) values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < BATCH; i++) {
+                ps.setLong(1, nextId());
+                bind(ps, 2, i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+    }
+
+    // pooled-оптимизатор Hibernate: одно обращение к последовательности на ALLOCATION_SIZE id
+    private long nextId() throws SQLException {
+        if (nextId >= maxId) {
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("select next value for contact_sequence_seq")) {
+                rs.next();
+                nextId = rs.getLong(1);
+                maxId = nextId + ALLOCATION_SIZE;
+            }
+        }
+        return nextId++;
+    }
+
+    private static void bind(PreparedStatement ps, int from, int i) throws SQLException {
+        ps.setString(from, "Компания " + i);
+        ps.setString(from + 1, "https://site" + i + ".ru/contacts");
+        ps.setString(from + 2, "+7 800 700 80 0" + (i % 10));
+        ps.setString(from + 3, "info" + i + "@site.ru");
+        ps.setString(from + 4, null);
+    }
+}
@@ -0,0 +1,264 @@
+package com.pingme.contactcrawler.cluster;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.crawler.CrawlContext;
+import com.pingme.contactcrawler.frontier.Frontier;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.logging.LoggingService;
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static io.micrometer.core.instrument.Metrics.globalRegistry;
+
+// Обход несколькими узлами (crawler.cluster): очередь каждого запуска делится по хостам (ShardingFrontier),
+// пакеты ссылок от других узлов попадают в запуск с тем же crawlId. Без кластера frontier не меняется.
+// Окончание обхода у каждого узла своё. Фильтр посещённых URL оконченного запуска держится finishedGrace:
+// пакет, пришедший за это время, обходится продолжением с тем же фильтром (уже обойденные URL не повторяются,
+// поэтому узлы не пересылают ссылки друг другу по кругу), позже - отбрасывается со счётчиком
+@Component
+public class ClusterCoordinator {
+
+    // Сколько последних оконченных запусков помнить, чтобы не начинать их заново
+    private static final int FINISHED_CRAWLS = 10_000;
+
+    // Что делать с пакетом от другого узла
+    public enum Delivery {
+        // Попал в идущий запуск (или отложен до его окончания)
+        DELIVERED,
+        // Запуск окончен недавно: начать продолжение с фильтром takeSeenUrls(crawlId)
+        CONTINUE,
+        // Запуск окончен давно, отменён или упёрся в лимит страниц: пакет отброшен
+        DROPPED,
+        // Запуска с этим id на узле не было: начать его
+        UNKNOWN
+    }
+
+    private final boolean enabled;
+    private final String self;
+    private final HashRing ring;
+    private final int batchSize;
+    private final long finishedGraceNanos;
+    private final ClusterTransport transport;
+    private final LoggingService loggingService;
+    private final ScheduledExecutorService sender;
+
+    private final Counter droppedUrls = Counter.builder("crawler.cluster.urls.dropped")
+            .description("URLs from other nodes dropped because the crawl had already finished on this node")
+            .register(globalRegistry);
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Оконченные на этом узле запуски, старые вытесняются; доступ под synchronized (finished)
+    private final LinkedHashMap<String, Finished> finished = new LinkedHashMap<>();
+
+    // Пакеты, пришедшие между finish() и unregister(), после окончания запуска отдаются сюда
+    private volatile Consumer<UrlBatch> lateBatches = batch -> { };
+
+    public ClusterCoordinator(CrawlerProperties properties, ClusterTransport transport, LoggingService loggingService) {
+        CrawlerProperties.Cluster cluster = properties.getCluster();
+        this.enabled = cluster.isEnabled();
+        this.self = cluster.getSelf();
+        this.ring = enabled ? new HashRing(cluster.getNodes(), cluster.getVirtualNodes()) : null;
+        this.batchSize = cluster.getBatchSize();
+        this.finishedGraceNanos = cluster.getFinishedGrace().toNanos();
+        this.transport = transport;
+        this.loggingService = loggingService;
+
+        if (enabled) {
+            if (!cluster.getNodes().contains(self)) {
+                throw new IllegalStateException("crawler.cluster.self (" + self + ") нет в crawler.cluster.nodes");
+            }
+            this.sender = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("crawler-cluster").daemon().factory());
+            long flushMillis = cluster.getFlushInterval().toMillis();
+            sender.scheduleWithFixedDelay(this::flushAll, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.sender = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void onLateBatch(Consumer<UrlBatch> handler) {
+        this.lateBatches = handler;
+    }
+
+    // Frontier запуска crawlId: в кластере - со своей долей хостов.
+    // seenUrls - фильтр посещённых URL запуска (для URL, которые придётся обойти самим)
+    public Frontier shard(String crawlId, Frontier local, UrlSeenFilter seenUrls) {
+        if (!enabled) {
+            return local;
+        }
+        return new ShardingFrontier(
+                crawlId, local, seenUrls, ring, self, transport, sender, batchSize, loggingService);
+    }
+
+    // С этого момента ссылки других узлов для crawlId попадают в context
+    public void register(String crawlId, CrawlContext context, Frontier frontier) {
+        if (enabled && frontier instanceof ShardingFrontier sharding) {
+            sessions.put(crawlId, new Session(context, sharding));
+        }
+    }
+
+    // Обход очереди окончен (дальше - запись в БД и закрытие журнала): ссылки других узлов в context
+    // больше не попадают, а копятся до unregister(). continuable - очередь опустела сама, а не по отмене
+    // или лимиту страниц: тогда пакеты, пришедшие позже, обходятся продолжением
+    public void finish(String crawlId, boolean continuable) {
+        Session session = sessions.get(crawlId);
+        if (session == null) {
+            return;
+        }
+        synchronized (session) {
+            session.closed = true;
+        }
+        synchronized (finished) {
+            finished.put(crawlId, new Finished(continuable ? session.context.getSeenUrls() : null));
+            evictOldest();
+        }
+    }
+
+    // Запуск окончен полностью: отправляем то, что ещё не ушло другим узлам,
+    // отложенные пакеты отдаём onLateBatch (он начнёт продолжение)
+    public void unregister(String crawlId) {
+        Session session = sessions.get(crawlId);
+        if (session == null) {
+            return;
+        }
+        List<String> late;
+        synchronized (finished) {
+            Finished tombstone = finished.get(crawlId);
+            if (tombstone == null || tombstone.late == null) {
+                // Запуск окончен без finish() (прерван или отменён до начала): продолжать его нельзя
+                tombstone = new Finished(null);
+                finished.put(crawlId, tombstone);
+            }
+            tombstone.expiresAt = System.nanoTime() + finishedGraceNanos;
+            late = tombstone.late;
+            tombstone.late = null;
+            evictOldest();
+        }
+        sessions.remove(crawlId, session);
+        session.frontier.close();
+
+        if (!late.isEmpty()) {
+            UrlBatch batch = new UrlBatch(crawlId, late);
+            sender.execute(() -> lateBatches.accept(batch));
+        }
+    }
+
+    // Пакет от другого узла для запуска batch.crawlId()
+    public Delivery deliver(UrlBatch batch) {
+        Session session = sessions.get(batch.crawlId());
+        if (session != null) {
+            synchronized (session) {
+                if (!session.closed) {
+                    for (String url : batch.urls()) {
+                        session.context.offer(url);
+                    }
+                    return Delivery.DELIVERED;
+                }
+            }
+        }
+
+        synchronized (finished) {
+            Finished tombstone = finished.get(batch.crawlId());
+            if (tombstone == null) {
+                return Delivery.UNKNOWN;
+            }
+            if (tombstone.late != null) {
+                // Запуск ещё дописывает результаты: пакет обойдётся продолжением после unregister()
+                tombstone.late.addAll(batch.urls());
+                return Delivery.DELIVERED;
+            }
+            if (tombstone.seenUrls != null && System.nanoTime() - tombstone.expiresAt < 0) {
+                return Delivery.CONTINUE;
+            }
+            tombstone.seenUrls = null;
+        }
+        droppedUrls.increment(batch.urls().size());
+        return Delivery.DROPPED;
+    }
+
+    // Фильтр посещённых URL для продолжения запуска; null - продолжать нечего.
+    // Забирается один раз: продолжение регистрируется как обычный запуск
+    public UrlSeenFilter takeSeenUrls(String crawlId) {
+        synchronized (finished) {
+            Finished tombstone = finished.get(crawlId);
+            if (tombstone == null) {
+                return null;
+            }
+            UrlSeenFilter seenUrls = tombstone.seenUrls;
+            tombstone.seenUrls = null;
+            return seenUrls;
+        }
+    }
+
+    // Вызывать под synchronized (finished). Фильтры с истёкшим finishedGrace тоже освобождаются
+    private void evictOldest() {
+        long now = System.nanoTime();
+        Iterator<Finished> it = finished.values().iterator();
+        while (it.hasNext()) {
+            Finished tombstone = it.next();
+            if (finished.size() > FINISHED_CRAWLS && tombstone.late == null) {
+                it.remove();
+            } else if (tombstone.late == null && now - tombstone.expiresAt >= 0) {
+                tombstone.seenUrls = null;
+            }
+        }
+    }
+
+    // Ошибка одного запуска не должна останавливать периодическую отправку остальных
+    private void flushAll() {
+        for (Map.Entry<String, Session> session : sessions.entrySet()) {
+            try {
+                session.getValue().frontier.flush();
+            } catch (RuntimeException e) {
+                loggingService.log("ERROR: не удалось отправить ссылки запуска " + session.getKey()
+                        + " другим узлам: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender != null) {
+            sender.shutdownNow();
+        }
+    }
+
+    // closed - доступ под synchronized (session)
+    private static final class Session {
+        private final CrawlContext context;
+        private final ShardingFrontier frontier;
+        private boolean closed;
+
+        private Session(CrawlContext context, ShardingFrontier frontier) {
+            this.context = context;
+            this.frontier = frontier;
+        }
+    }
+
+    // late != null - запуск ещё не дошёл до unregister(); seenUrls == null - продолжать нельзя
+    private static final class Finished {
+        private UrlSeenFilter seenUrls;
+        private List<String> late = new ArrayList<>();
+        private long expiresAt;
+
+        private Finished(UrlSeenFilter seenUrls) {
+            this.seenUrls = seenUrls;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.pingme.contactcrawler.cluster;
+
+// Доставка пакетов URL между узлами кластера. Исключение - пакет не доставлен
+public interface ClusterTransport {
+
+    void send(String node, UrlBatch batch);
+}
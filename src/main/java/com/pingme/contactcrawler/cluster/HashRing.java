@@ -0,0 +1,31 @@
+package com.pingme.contactcrawler.cluster;
+
+import com.pingme.contactcrawler.frontier.UrlFingerprint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Консистентное хэширование хостов по узлам кластера. У каждого узла virtualNodes точек на кольце,
+// хост принадлежит узлу первой точки за его хэшем. При добавлении или удалении узла
+// переезжает только его доля хостов, остальные остаются на своих узлах
+public class HashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public HashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Список узлов кластера пуст");
+        }
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(UrlFingerprint.of(node + "#" + i), node);
+            }
+        }
+    }
+
+    public String owner(String host) {
+        Map.Entry<Long, String> point = ring.ceilingEntry(UrlFingerprint.of(host));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+}
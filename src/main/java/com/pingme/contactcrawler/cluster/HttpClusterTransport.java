@@ -0,0 +1,30 @@
+package com.pingme.contactcrawler.cluster;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+// Пакеты URL передаются узлу по HTTP: POST {node}/api/cluster/urls (ClusterController)
+@Component
+public class HttpClusterTransport implements ClusterTransport {
+
+    private final WebClient webClient;
+    private final Duration sendTimeout;
+
+    public HttpClusterTransport(WebClient crawlerWebClient, CrawlerProperties properties) {
+        this.webClient = crawlerWebClient;
+        this.sendTimeout = properties.getCluster().getSendTimeout();
+    }
+
+    @Override
+    public void send(String node, UrlBatch batch) {
+        webClient.post()
+                .uri(node + "/api/cluster/urls")
+                .bodyValue(batch)
+                .retrieve()
+                .toBodilessEntity()
+                .block(sendTimeout);
+    }
+}
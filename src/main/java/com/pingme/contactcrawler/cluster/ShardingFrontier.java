@@ -0,0 +1,168 @@
+package com.pingme.contactcrawler.cluster;
+
+import com.pingme.contactcrawler.frontier.Frontier;
+import com.pingme.contactcrawler.frontier.FrontierUrl;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.frontier.Urls;
+import com.pingme.contactcrawler.logging.LoggingService;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Frontier узла кластера: URL своих хостов идут в локальную очередь, чужих - пакетами узлу-владельцу.
+// Полный пакет уходит через sender (не на потоке обхода), неполные - по flush().
+// После close() (запуск окончен) неотправленные URL больше не возвращаются в локальную очередь
+public class ShardingFrontier implements Frontier {
+
+    private final String crawlId;
+    private final Frontier local;
+    private final UrlSeenFilter seenUrls;
+    private final HashRing ring;
+    private final String self;
+    private final ClusterTransport transport;
+    private final Executor sender;
+    private final int batchSize;
+    private final LoggingService loggingService;
+
+    // Неотправленные URL по узлам; доступ под synchronized (pending), как и к closed
+    private final Map<String, List<String>> pending = new HashMap<>();
+    private boolean closed;
+
+    // seenUrls - фильтр посещённых URL запуска: через него проходят URL, оставленные себе при недоступном узле
+    public ShardingFrontier(String crawlId,
+                            Frontier local,
+                            UrlSeenFilter seenUrls,
+                            HashRing ring,
+                            String self,
+                            ClusterTransport transport,
+                            Executor sender,
+                            int batchSize,
+                            LoggingService loggingService) {
+        this.crawlId = crawlId;
+        this.local = local;
+        this.seenUrls = seenUrls;
+        this.ring = ring;
+        this.self = self;
+        this.transport = transport;
+        this.sender = sender;
+        this.batchSize = batchSize;
+        this.loggingService = loggingService;
+    }
+
+    @Override
+    public boolean isLocal(String url) {
+        return self.equals(ring.owner(Urls.host(url)));
+    }
+
+    @Override
+    public void offer(String url) {
+        offer(url, 0);
+    }
+
+    @Override
+    public void offer(String url, int priority) {
+        offer(url, priority, 0);
+    }
+
+    // Приоритет и глубина другому узлу не передаются: там URL считается стартовым
+    @Override
+    public void offer(String url, int priority, int depth) {
+        String owner = ring.owner(Urls.host(url));
+        if (self.equals(owner)) {
+            local.offer(url, priority, depth);
+            return;
+        }
+
+        List<String> full = null;
+        synchronized (pending) {
+            List<String> urls = pending.computeIfAbsent(owner, node -> new ArrayList<>());
+            urls.add(url);
+            if (urls.size() >= batchSize) {
+                full = pending.remove(owner);
+            }
+        }
+        if (full != null) {
+            List<String> batch = full;
+            sender.execute(() -> send(owner, batch));
+        }
+    }
+
+    // Отправить все накопленные пакеты (по таймеру и в конце обхода)
+    public void flush() {
+        Map<String, List<String>> batches;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batches = new HashMap<>(pending);
+            pending.clear();
+        }
+        batches.forEach(this::send);
+    }
+
+    // Запуск окончен: последняя отправка. Очередь и журнал запуска закрываются следом,
+    // поэтому URL недоступного узла уже не возвращаются в них, а отбрасываются
+    public void close() {
+        synchronized (pending) {
+            closed = true;
+        }
+        flush();
+    }
+
+    private void send(String node, List<String> urls) {
+        try {
+            transport.send(node, new UrlBatch(crawlId, urls));
+        } catch (RuntimeException e) {
+            keepLocally(node, urls, e);
+        }
+    }
+
+    // Лучше обойти чужие хосты самим, чем потерять ссылки. Через фильтр посещённых URL запуска,
+    // как и свои: уже поставленные в очередь не повторяются
+    private void keepLocally(String node, List<String> urls, RuntimeException e) {
+        synchronized (pending) {
+            if (closed) {
+                loggingService.log("WARN: узел " + node + " недоступен (" + e.getMessage() + "), запуск "
+                        + crawlId + " уже окончен, " + urls.size() + " URL отброшены");
+                return;
+            }
+            loggingService.log("WARN: узел " + node + " недоступен (" + e.getMessage() + "), "
+                    + urls.size() + " URL будут обойдены локально");
+            for (String url : urls) {
+                if (seenUrls.add(url)) {
+                    local.offer(url);
+                }
+            }
+        }
+    }
+
+    @Override
+    public FrontierUrl poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return local.poll(timeout, unit);
+    }
+
+    @Override
+    public void completed(String url) {
+        local.completed(url);
+    }
+
+    // URL, отправленные другим узлам, обходят они: этот узел ждёт только свою очередь
+    @Override
+    public boolean isEmpty() {
+        return local.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return local.size();
+    }
+
+    @Override
+    public long polled() {
+        return local.polled();
+    }
+}
@@ -0,0 +1,7 @@
+package com.pingme.contactcrawler.cluster;
+
+import java.util.List;
+
+// Пакет URL для узла-владельца их хостов. crawlId - обход, к которому относятся ссылки
+// (у всех узлов один и тот же)
+public record UrlBatch(String crawlId, List<String> urls) {}
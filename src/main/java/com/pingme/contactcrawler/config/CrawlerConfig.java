@@ -0,0 +1,64 @@
+package com.pingme.contactcrawler.config;
+
+import com.pingme.contactcrawler.frontier.UrlCanonicalizer;
+import io.netty.channel.ChannelOption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class CrawlerConfig {
+
+    @Bean
+    public UrlCanonicalizer urlCanonicalizer(CrawlerProperties properties) {
+        return new UrlCanonicalizer(properties.getCanonical().getStripParams());
+    }
+
+    // Пул соединений краулера. Reactor Netty держит отдельный пул на каждый хост,
+    // maxConnections - предел одного такого пула. Метрики пула: reactor_netty_connection_provider_*
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider crawlerConnectionProvider(CrawlerProperties properties) {
+        CrawlerProperties.Http http = properties.getHttp();
+        return ConnectionProvider.builder("crawler")
+                .maxConnections(http.getMaxConnectionsPerHost())
+                .pendingAcquireTimeout(http.getPendingAcquireTimeout())
+                .maxIdleTime(http.getMaxIdleTime())
+                .evictInBackground(http.getMaxIdleTime())
+                .metrics(true)
+                .build();
+    }
+
+    // HTTP-клиент для загрузки страниц (PageFetcher). Тело читается потоком порций,
+    // поэтому лимит страницы (max-body-size) соблюдает сам PageFetcher
+    @Bean
+    public WebClient crawlerWebClient(CrawlerProperties properties, ConnectionProvider crawlerConnectionProvider) {
+        CrawlerProperties.Http http = properties.getHttp();
+
+        HttpClient client = HttpClient.create(crawlerConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(http.getReadTimeout())
+                .compress(http.isCompression())
+                .followRedirect(true);
+        if (http.isHttp2()) {
+            client = client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(client))
+                .build();
+    }
+
+    // Пул разбора HTML (crawler.reactive.parse-parallelism потоков), общий для всех режимов:
+    // тело страницы разбирается на нём, а не на потоках event loop Netty
+    @Bean(destroyMethod = "dispose")
+    public Scheduler crawlerParseScheduler(CrawlerProperties properties) {
+        return Schedulers.newParallel("crawler-parse", properties.getReactive().getParseParallelism());
+    }
+}
@@ -0,0 +1,654 @@
+package com.pingme.contactcrawler.config;
+
+import com.pingme.contactcrawler.crawler.CrawlMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Настройки краулера (секция crawler в application.yml)
+@ConfigurationProperties(prefix = "crawler")
+public class CrawlerProperties {
+
+    // Режим выполнения обхода
+    private CrawlMode mode = CrawlMode.PLATFORM;
+
+    // Лимит страниц за один запуск
+    private int maxPages = 20;
+
+    // Число потоков-воркеров в режиме platform
+    private int workers = 4;
+
+    // Таймаут загрузки одной страницы
+    private Duration fetchTimeout = Duration.ofSeconds(10);
+
+    // Размер пакета записи в БД
+    private int batchSize = 50;
+
+    private final Http http = new Http();
+
+    private final Writer writer = new Writer();
+
+    private final Reactive reactive = new Reactive();
+
+    private final Virtual virtual = new Virtual();
+
+    private final Politeness politeness = new Politeness();
+
+    private final Seen seen = new Seen();
+
+    private final Canonical canonical = new Canonical();
+
+    private final Journal journal = new Journal();
+
+    private final SearchCache searchCache = new SearchCache();
+
+    private final Recrawl recrawl = new Recrawl();
+
+    private final Jobs jobs = new Jobs();
+
+    private final Cluster cluster = new Cluster();
+
+    public CrawlMode getMode() {
+        return mode;
+    }
+
+    public void setMode(CrawlMode mode) {
+        this.mode = mode;
+    }
+
+    public int getMaxPages() {
+        return maxPages;
+    }
+
+    public void setMaxPages(int maxPages) {
+        this.maxPages = maxPages;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public Duration getFetchTimeout() {
+        return fetchTimeout;
+    }
+
+    public void setFetchTimeout(Duration fetchTimeout) {
+        this.fetchTimeout = fetchTimeout;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    public Writer getWriter() {
+        return writer;
+    }
+
+    public Reactive getReactive() {
+        return reactive;
+    }
+
+    public Virtual getVirtual() {
+        return virtual;
+    }
+
+    public Politeness getPoliteness() {
+        return politeness;
+    }
+
+    public Seen getSeen() {
+        return seen;
+    }
+
+    public Canonical getCanonical() {
+        return canonical;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    public Recrawl getRecrawl() {
+        return recrawl;
+    }
+
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    // HTTP-клиент краулера: пулы keep-alive соединений по хостам, HTTP/2, сжатие, таймауты, лимит тела
+    public static class Http {
+
+        // Установка TCP/TLS-соединения
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        // Ожидание ответа после отправки запроса (fetch-timeout ограничивает загрузку целиком)
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        // Соединений в пуле одного хоста
+        private int maxConnectionsPerHost = 8;
+
+        // Сколько ждать свободного соединения из пула
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+
+        // Простаивающее keep-alive соединение закрывается через
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        // HTTP/2 через ALPN для https-сайтов, иначе HTTP/1.1
+        private boolean http2 = true;
+
+        // Accept-Encoding: gzip, deflate и распаковка ответа
+        private boolean compression = true;
+
+        // Сколько байт тела страницы читать; остальное не загружается, разбирается прочитанное начало
+        private DataSize maxBodySize = DataSize.ofMegabytes(2);
+
+        // Прекращать чтение страницы, как только найден email или телефон (ссылки ниже по странице теряются)
+        private boolean stopWhenContactsFound = false;
+
+        // Разбирать страницы в ASCII-совместимых кодировках (UTF-8, windows-1251 ...) прямо из байт, без декодирования
+        private boolean byteParsing = true;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public int getMaxConnectionsPerHost() {
+            return maxConnectionsPerHost;
+        }
+
+        public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+            this.maxConnectionsPerHost = maxConnectionsPerHost;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public boolean isHttp2() {
+            return http2;
+        }
+
+        public void setHttp2(boolean http2) {
+            this.http2 = http2;
+        }
+
+        public boolean isCompression() {
+            return compression;
+        }
+
+        public void setCompression(boolean compression) {
+            this.compression = compression;
+        }
+
+        public DataSize getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(DataSize maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+
+        public boolean isStopWhenContactsFound() {
+            return stopWhenContactsFound;
+        }
+
+        public void setStopWhenContactsFound(boolean stopWhenContactsFound) {
+            this.stopWhenContactsFound = stopWhenContactsFound;
+        }
+
+        public boolean isByteParsing() {
+            return byteParsing;
+        }
+
+        public void setByteParsing(boolean byteParsing) {
+            this.byteParsing = byteParsing;
+        }
+    }
+
+    // Отложенная запись контактов в БД: общая очередь и отдельный поток-писатель
+    public static class Writer {
+
+        // Сколько контактов может ждать записи; при заполнении воркеры ждут писателя
+        private int queueCapacity = 10_000;
+
+        // Максимальное ожидание неполного пакета перед записью в БД
+        private Duration flushInterval = Duration.ofSeconds(2);
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+    }
+
+    // Настройки режима reactive: сеть и CPU ограничиваются отдельно
+    public static class Reactive {
+
+        // Сколько HTTP-запросов одновременно "в полёте"
+        private int maxInFlight = 256;
+
+        // Сколько потоков разбирают HTML
+        private int parseParallelism = Runtime.getRuntime().availableProcessors();
+
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        public int getParseParallelism() {
+            return parseParallelism;
+        }
+
+        public void setParseParallelism(int parseParallelism) {
+            this.parseParallelism = parseParallelism;
+        }
+    }
+
+    // Настройки режима virtual: по виртуальному потоку на каждую загрузку
+    public static class Virtual {
+
+        // Сколько загрузок одновременно на весь запуск
+        private int maxConcurrency = 1000;
+
+        // Сколько загрузок одновременно к одному хосту
+        private int maxPerHost = 8;
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getMaxPerHost() {
+            return maxPerHost;
+        }
+
+        public void setMaxPerHost(int maxPerHost) {
+            this.maxPerHost = maxPerHost;
+        }
+    }
+
+    // Вежливость к сайтам: ограничение частоты запросов к одному хосту (token bucket)
+    public static class Politeness {
+
+        // Запросов в секунду к одному хосту в среднем
+        private double hostRate = 2.0;
+
+        // Сколько запросов к хосту можно сделать подряд без паузы
+        private int hostBurst = 2;
+
+        public double getHostRate() {
+            return hostRate;
+        }
+
+        public void setHostRate(double hostRate) {
+            this.hostRate = hostRate;
+        }
+
+        public int getHostBurst() {
+            return hostBurst;
+        }
+
+        public void setHostBurst(int hostBurst) {
+            this.hostBurst = hostBurst;
+        }
+    }
+
+    // Множество посещённых URL (Bloom-фильтр по 64-битным отпечаткам)
+    public static class Seen {
+
+        // На сколько URL рассчитан первый слой фильтра (дальше растёт сам)
+        private int expectedUrls = 100_000;
+
+        // Допустимая доля ложных срабатываний (новый URL ошибочно считается посещённым)
+        private double falsePositiveRate = 0.0001;
+
+        // Предел памяти фильтра на один запуск
+        private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+        public int getExpectedUrls() {
+            return expectedUrls;
+        }
+
+        public void setExpectedUrls(int expectedUrls) {
+            this.expectedUrls = expectedUrls;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public DataSize getMaxMemory() {
+            return maxMemory;
+        }
+
+        public void setMaxMemory(DataSize maxMemory) {
+            this.maxMemory = maxMemory;
+        }
+    }
+
+    // Приведение URL к каноническому виду перед постановкой в очередь
+    public static class Canonical {
+
+        // Параметры запроса, которые выбрасываются из URL ("utm_*" - по префиксу)
+        private List<String> stripParams = new ArrayList<>(List.of(
+                "utm_*", "gclid", "yclid", "ysclid", "fbclid", "_openstat", "roistat"
+        ));
+
+        public List<String> getStripParams() {
+            return stripParams;
+        }
+
+        public void setStripParams(List<String> stripParams) {
+            this.stripParams = stripParams;
+        }
+    }
+
+    // Журнал обхода на диске: очередь и посещённые URL переживают перезапуск приложения
+    public static class Journal {
+
+        private boolean enabled = false;
+
+        // Каталог журналов; у каждого запуска краулера свой подкаталог
+        private Path dir = Path.of("data/crawl-journal");
+
+        // Через сколько записей в лог делать снимок состояния (checkpoint)
+        private int checkpointEvery = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Path getDir() {
+            return dir;
+        }
+
+        public void setDir(Path dir) {
+            this.dir = dir;
+        }
+
+        public int getCheckpointEvery() {
+            return checkpointEvery;
+        }
+
+        public void setCheckpointEvery(int checkpointEvery) {
+            this.checkpointEvery = checkpointEvery;
+        }
+    }
+
+    // Кэш результатов поиска контактов (/search, /by-phone, /by-email)
+    public static class SearchCache {
+
+        // Сколько разных запросов хранить (на каждый вид поиска); при переполнении вытесняются давно не использованные
+        private int maxEntries = 10_000;
+
+        // Время жизни результата; записи краулера сбрасывают затронутые результаты сразу
+        private Duration ttl = Duration.ofMinutes(5);
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    // Повторный обход: условные запросы (ETag / Last-Modified) и пропуск неизменившихся страниц
+    public static class Recrawl {
+
+        private boolean enabled = true;
+
+        // Сколько страниц помнить; при переполнении вытесняются давно не встречавшиеся
+        private int maxPages = 100_000;
+
+        // Где хранить ссылки страниц для ответа 304; на диске не больше двух файлов по linksMaxSize
+        private Path linksDir = Path.of("data/recrawl");
+
+        private DataSize linksMaxSize = DataSize.ofMegabytes(256);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxPages() {
+            return maxPages;
+        }
+
+        public void setMaxPages(int maxPages) {
+            this.maxPages = maxPages;
+        }
+
+        public Path getLinksDir() {
+            return linksDir;
+        }
+
+        public void setLinksDir(Path linksDir) {
+            this.linksDir = linksDir;
+        }
+
+        public DataSize getLinksMaxSize() {
+            return linksMaxSize;
+        }
+
+        public void setLinksMaxSize(DataSize linksMaxSize) {
+            this.linksMaxSize = linksMaxSize;
+        }
+    }
+
+    // Фоновые задания обхода (/api/crawler/jobs)
+    public static class Jobs {
+
+        // Сколько заданий обходят сайты одновременно; остальные ждут в очереди
+        private int maxConcurrent = 2;
+
+        // Сколько завершённых заданий хранить для просмотра статуса
+        private int keepFinished = 100;
+
+        // Сколько событий по URL хранит один запуск (кольцевой буфер: старые вытесняются новыми)
+        // и держится для одного подписчика потока /jobs/{id}/events: при подключении отдаются
+        // хранящиеся события, при медленном чтении старые отбрасываются. Ответ /start - тоже не больше
+        private int eventBuffer = 1000;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getKeepFinished() {
+            return keepFinished;
+        }
+
+        public void setKeepFinished(int keepFinished) {
+            this.keepFinished = keepFinished;
+        }
+
+        public int getEventBuffer() {
+            return eventBuffer;
+        }
+
+        public void setEventBuffer(int eventBuffer) {
+            this.eventBuffer = eventBuffer;
+        }
+    }
+
+    // Обход несколькими экземплярами приложения: хосты закреплены за узлами консистентным хэшированием,
+    // ссылки на чужие хосты пакетами передаются узлу-владельцу
+    public static class Cluster {
+
+        private boolean enabled = false;
+
+        // Адрес этого узла, как он записан в nodes
+        private String self = "http://localhost:8080";
+
+        // Адреса всех узлов кластера, включая этот
+        private List<String> nodes = new ArrayList<>();
+
+        // Точек на кольце хэшей на один узел: чем больше, тем ровнее хосты делятся между узлами
+        private int virtualNodes = 128;
+
+        // Сколько URL для одного узла копится перед отправкой
+        private int batchSize = 100;
+
+        // Неполный пакет отправляется не позже чем через
+        private Duration flushInterval = Duration.ofMillis(500);
+
+        // Ожидание ответа узла; если узел недоступен, его URL обходятся локально
+        private Duration sendTimeout = Duration.ofSeconds(5);
+
+        // Сколько после окончания обхода на этом узле держать его фильтр посещённых URL: ссылки, пришедшие
+        // от других узлов за это время, обходятся продолжением с тем же id, позже - отбрасываются
+        private Duration finishedGrace = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getSelf() {
+            return self;
+        }
+
+        public void setSelf(String self) {
+            this.self = self;
+        }
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public Duration getSendTimeout() {
+            return sendTimeout;
+        }
+
+        public void setSendTimeout(Duration sendTimeout) {
+            this.sendTimeout = sendTimeout;
+        }
+
+        public Duration getFinishedGrace() {
+            return finishedGrace;
+        }
+
+        public void setFinishedGrace(Duration finishedGrace) {
+            this.finishedGrace = finishedGrace;
+        }
+    }
+}
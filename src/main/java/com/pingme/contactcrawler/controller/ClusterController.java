@@ -0,0 +1,62 @@
+package com.pingme.contactcrawler.controller;
+
+import com.pingme.contactcrawler.cluster.ClusterCoordinator;
+import com.pingme.contactcrawler.cluster.UrlBatch;
+import com.pingme.contactcrawler.service.CrawlJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/cluster")
+@Tag(
+        name = "Кластер краулеров"
+)
+public class ClusterController {
+
+    private final CrawlJobService crawlJobService;
+    private final ClusterCoordinator clusterCoordinator;
+
+    public ClusterController(CrawlJobService crawlJobService, ClusterCoordinator clusterCoordinator) {
+        this.crawlJobService = crawlJobService;
+        this.clusterCoordinator = clusterCoordinator;
+    }
+
+    @Operation(
+            summary = "Принять ссылки от другого узла",
+            description = """
+                    Вызывается другими узлами кластера (crawler.cluster): URL хостов, закреплённых за этим узлом.
+                    Ссылки попадают в идущий обход с тем же crawlId, иначе обход начинается фоновым заданием с этим id.
+                    Пакет для обхода, который на этом узле уже окончен, отбрасывается.
+                    """
+    )
+    @ApiResponse(responseCode = "202", description = "Ссылки приняты")
+    @ApiResponse(responseCode = "400", description = "Пакет без crawlId (UUID) или URL")
+    @ApiResponse(responseCode = "404", description = "Узел работает не в кластере (crawler.cluster.enabled=false)")
+    @PostMapping("/urls")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void acceptUrls(@RequestBody UrlBatch batch) {
+        // Без кластера чужие пакеты не принимаются: иначе любой клиент мог бы запускать обходы в обход /api/crawler
+        if (!clusterCoordinator.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Кластерный режим выключен");
+        }
+        if (!isCrawlId(batch.crawlId()) || batch.urls() == null || batch.urls().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Пакет без crawlId или URL");
+        }
+        crawlJobService.acceptForwarded(batch);
+    }
+
+    // crawlId - UUID: он же имя каталога журнала обхода
+    private static boolean isCrawlId(String crawlId) {
+        try {
+            return crawlId != null && UUID.fromString(crawlId).toString().equals(crawlId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
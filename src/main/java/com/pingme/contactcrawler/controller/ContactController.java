@@ -1,7 +1,12 @@
 package com.pingme.contactcrawler.controller;
 
+import com.pingme.contactcrawler.dto.ContactPage;
 import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.repository.ContactCursor;
 import com.pingme.contactcrawler.repository.ContactInfoRepository;
+import com.pingme.contactcrawler.search.ContactSearchIndex;
+import com.pingme.contactcrawler.search.ContactSearchService;
+import com.pingme.contactcrawler.service.ContactExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -9,12 +14,21 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/contacts")
@@ -23,16 +37,37 @@ import java.util.stream.Collectors;
 )
 public class ContactController {
 
+    private static final int MAX_CURSOR_PAGE = 1000;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+
+    // Параметр sortBy -> поле сущности (для каждого есть индекс)
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "id", "id",
+            "name", "name",
+            "website", "website",
+            "phone", "phones",
+            "email", "email"
+    );
+
     private final ContactInfoRepository contactInfoRepository;
+    private final ContactExportService contactExportService;
+    private final ContactSearchService contactSearchService;
 
-    public ContactController(ContactInfoRepository contactInfoRepository) {
+    public ContactController(ContactInfoRepository contactInfoRepository,
+                             ContactExportService contactExportService,
+                             ContactSearchService contactSearchService) {
         this.contactInfoRepository = contactInfoRepository;
+        this.contactExportService = contactExportService;
+        this.contactSearchService = contactSearchService;
     }
 
     @Operation(
             summary = "Поиск контактов по названию/домену компании",
             description = """
-                    Возвращает контакты из БД H2, где название организации или сайт содержат строку поиска.
+                    Возвращает контакты, где название организации или сайт содержат строку поиска
+                    (без учёта регистра, "ё" = "е"). Сначала точные совпадения и совпадения с начала
+                    названия/домена, затем остальные; не больше limit записей.
+                    Строка поиска - не короче 3 символов; схема сайта ("https://") не ищется.
                     
                     Примеры запросов:
                     - query = "Билайн"
@@ -48,16 +83,87 @@ public class ContactController {
                     array = @ArraySchema(schema = @Schema(implementation = ContactInfo.class))
             )
     )
+    @ApiResponse(responseCode = "400", description = "Строка поиска короче 3 символов")
     @GetMapping("/search")
     public List<ContactInfo> search(
             @Parameter(
                     example = "netology",
                     required = true
             )
-            @RequestParam("query") String query
+            @RequestParam("query") String query,
+
+            @Parameter(
+                    description = "Сколько контактов вернуть (По умолчанию 50, не больше 1000).",
+                    example = "50"
+            )
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        // По 1-2 символам индекс не сужает выборку - это был бы перебор всей таблицы
+        if (query.trim().length() < ContactSearchIndex.MIN_QUERY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Строка поиска короче " + ContactSearchIndex.MIN_QUERY_LENGTH + " символов: " + query);
+        }
+        return contactSearchService.search(query, Math.clamp(limit, 1, MAX_SEARCH_LIMIT));
+    }
+
+    @Operation(
+            summary = "Найти владельца телефона",
+            description = """
+                    Возвращает контакты, у которых есть этот номер. Формат записи не важен:
+                    "+7 800 700 8000", "8 (800) 700-80-00" и "88007008000" - один номер
+                    (сравниваются последние 10 цифр).
+                    """
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Контакты с этим номером",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ContactInfo.class))
+            )
+    )
+    @ApiResponse(responseCode = "400", description = "В номере нет цифр")
+    @GetMapping("/by-phone")
+    public List<ContactInfo> byPhone(
+            @Parameter(
+                    example = "+7 800 700 8000",
+                    required = true
+            )
+            @RequestParam("phone") String phone
     ) {
-        return contactInfoRepository
-                .findByNameContainingIgnoreCaseOrWebsiteContainingIgnoreCase(query, query);
+        String key = ContactInfo.phoneKey(phone);
+        if (key.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "В номере нет цифр: " + phone);
+        }
+        return contactSearchService.byPhone(key);
+    }
+
+    @Operation(
+            summary = "Найти владельца email",
+            description = "Возвращает контакты с этим адресом почты (без учёта регистра)."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Контакты с этим email",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ContactInfo.class))
+            )
+    )
+    @ApiResponse(responseCode = "400", description = "Пустой email")
+    @GetMapping("/by-email")
+    public List<ContactInfo> byEmail(
+            @Parameter(
+                    example = "support@beeline.ru",
+                    required = true
+            )
+            @RequestParam("email") String email
+    ) {
+        String key = ContactInfo.emailKey(email);
+        if (key.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Пустой email");
+        }
+        return contactSearchService.byEmail(key);
     }
 
     @Operation(
@@ -74,6 +180,7 @@ public class ContactController {
                     array = @ArraySchema(schema = @Schema(implementation = ContactInfo.class))
             )
     )
+    @ApiResponse(responseCode = "400", description = "page меньше 0 или size меньше 1")
     @GetMapping("/answer")
     public List<ContactInfo> answer(
             @Parameter(
@@ -100,50 +207,138 @@ public class ContactController {
             )
             @RequestParam(defaultValue = "10") int size
     ) {
-        // достаем все записи из H2
-        List<ContactInfo> all = contactInfoRepository.findAll();
-
-        // выбираем компаратор в зависимости от sortBy
-        Comparator<ContactInfo> comparator;
-
-        switch (sortBy) {
-            case "name":
-                comparator = Comparator.comparing(
-                        ContactInfo::getName,
-                        Comparator.nullsLast(String::compareToIgnoreCase)
-                );
-                break;
-            case "website":
-                comparator = Comparator.comparing(
-                        ContactInfo::getWebsite,
-                        Comparator.nullsLast(String::compareToIgnoreCase)
-                );
-                break;
-            case "phone":
-                comparator = Comparator.comparing(
-                        ContactInfo::getPhone,
-                        Comparator.nullsLast(String::compareToIgnoreCase)
-                );
-                break;
-            case "email":
-                comparator = Comparator.comparing(
-                        ContactInfo::getEmail,
-                        Comparator.nullsLast(String::compareToIgnoreCase)
-                );
-                break;
-            default:
-                // по умолчанию сортируем по id
-                comparator = Comparator.comparing(ContactInfo::getId);
+        if (page < 0 || size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "page должен быть не меньше 0, size - не меньше 1");
+        }
+
+        Sort.Direction order = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // по умолчанию (и для неизвестного поля) сортируем по id
+        String property = SORT_PROPERTIES.getOrDefault(sortBy, "id");
+
+        // id - второй ключ: при равных значениях порядок строк между страницами стабилен
+        Sort sort = Sort.by(order, property);
+        if (!"id".equals(property)) {
+            sort = sort.and(Sort.by(order, "id"));
+        }
+
+        // Сортировка и пагинация в БД: сначала id страницы по индексу, потом сами строки.
+        // findAllById порядок не сохраняет - строки раскладываются по списку id
+        List<Long> ids = contactInfoRepository.findPageIds(PageRequest.of(page, size, sort));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ContactInfo> byId = new HashMap<>();
+        for (ContactInfo contact : contactInfoRepository.findAllById(ids)) {
+            byId.put(contact.getId(), contact);
+        }
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Operation(
+            summary = "Постраничный обход всех контактов по курсору",
+            description = """
+                    Возвращает страницу контактов и nextCursor - его нужно передать в следующий запрос.
+                    Каждая страница читается диапазоном по индексу (без OFFSET), поэтому полный обход
+                    таблицы занимает линейное время. nextCursor = null - страниц больше нет.
+                    
+                    sortBy и direction учитываются только в первом запросе, дальше порядок задаёт курсор.
+                    """
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Страница контактов и курсор следующей страницы",
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    schema = @Schema(implementation = ContactPage.class)
+            )
+    )
+    @ApiResponse(responseCode = "400", description = "Некорректный курсор")
+    @GetMapping("/cursor")
+    public ContactPage cursor(
+            @Parameter(
+                    description = "Курсор из предыдущего ответа (для первой страницы не передаётся)."
+            )
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(
+                    description = "Поле сортировки: id, name, website, phone, email (По умолчанию id).",
+                    example = "name"
+            )
+            @RequestParam(defaultValue = "id") String sortBy,
+
+            @Parameter(
+                    description = "Направление сортировки: asc (по возрастанию) или desc (по убыванию).",
+                    example = "asc"
+            )
+            @RequestParam(defaultValue = "asc") String direction,
+
+            @Parameter(
+                    description = "Размер страницы (По умолчанию 100, не больше 1000).",
+                    example = "100"
+            )
+            @RequestParam(defaultValue = "100") int size
+    ) {
+        ContactCursor position;
+        if (cursor == null || cursor.isBlank()) {
+            position = ContactCursor.start(
+                    SORT_PROPERTIES.getOrDefault(sortBy, "id"),
+                    "desc".equalsIgnoreCase(direction));
+        } else {
+            try {
+                position = ContactCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некорректный курсор", e);
+            }
         }
 
-        if ("desc".equalsIgnoreCase(direction)) {
-            comparator = comparator.reversed();
+        int limit = Math.clamp(size, 1, MAX_CURSOR_PAGE);
+        // Читаем на одну строку больше: так известно, есть ли следующая страница
+        List<ContactInfo> rows = contactInfoRepository.findAfter(position, limit + 1);
+        if (rows.size() <= limit) {
+            return new ContactPage(rows, null);
+        }
+
+        List<ContactInfo> items = rows.subList(0, limit);
+        return new ContactPage(items, position.after(items.get(limit - 1)).encode());
+    }
+
+    @Operation(
+            summary = "Выгрузить все контакты (NDJSON или CSV)",
+            description = """
+                    Отдаёт все контакты потоком, строка за строкой, не собирая их в памяти.
+                    Подходит для выгрузки миллионов записей.
+                    
+                    - format = ndjson - по одному JSON-объекту на строку (по умолчанию)
+                    - format = csv - CSV с заголовком
+                    """
+    )
+    @ApiResponse(responseCode = "200", description = "Файл выгрузки")
+    @ApiResponse(responseCode = "400", description = "Неизвестный формат")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(
+                    description = "Формат выгрузки: ndjson или csv (По умолчанию ndjson).",
+                    example = "csv"
+            )
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        ContactExportService.Format exportFormat;
+        try {
+            exportFormat = ContactExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Неизвестный формат: " + format, e);
         }
 
-        return all.parallelStream()
-                .sorted(comparator)
-                .skip((long) page * size) // пагинация
-                .limit(size)
-                .collect(Collectors.toList());
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=contacts." + exportFormat.getExtension())
+                .body(out -> contactExportService.export(exportFormat, out));
     }
 }
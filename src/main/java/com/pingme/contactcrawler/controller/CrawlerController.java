@@ -1,5 +1,8 @@
 package com.pingme.contactcrawler.controller;
 
+import com.pingme.contactcrawler.crawler.CrawlEvent;
+import com.pingme.contactcrawler.service.CrawlJob;
+import com.pingme.contactcrawler.service.CrawlJobService;
 import com.pingme.contactcrawler.service.CrawlerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -8,9 +11,17 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -21,9 +32,11 @@ import java.util.List;
 public class CrawlerController {
 
     private final CrawlerService crawlerService;
+    private final CrawlJobService crawlJobService;
 
-    public CrawlerController(CrawlerService crawlerService) {
+    public CrawlerController(CrawlerService crawlerService, CrawlJobService crawlJobService) {
         this.crawlerService = crawlerService;
+        this.crawlJobService = crawlJobService;
     }
 
     @Operation(
@@ -31,6 +44,7 @@ public class CrawlerController {
             description = """
                     Принимает список стартовых URL (обычно страницы с контактами компаний),
                     запускает многопоточный краулер и сохраняет найденные телефоны/почты в БД H2.
+                    Ответ приходит только после окончания обхода; для больших обходов - POST /api/crawler/jobs.
                     
                     Пример тела запроса (Можно отправлять как один URL так и несколько):
                     ```
@@ -69,6 +83,96 @@ public class CrawlerController {
         return crawlerService.crawl(startUrls);
     }
 
+    @Operation(
+            summary = "Запустить обход в фоне",
+            description = """
+                    Тело запроса - как у /start. Сразу возвращает задание с id (статус QUEUED или RUNNING),
+                    сам обход идёт в фоне. Прогресс - GET /api/crawler/jobs/{id}, отмена - DELETE /api/crawler/jobs/{id}.
+                    """
+    )
+    @ApiResponse(responseCode = "202", description = "Задание принято")
+    @ApiResponse(responseCode = "400", description = "Список стартовых URL пуст")
+    @PostMapping("/jobs")
+    public ResponseEntity<CrawlJob> submitJob(
+            @org.springframework.web.bind.annotation.RequestBody StartRequest request
+    ) {
+        List<String> startUrls = request.startUrls();
+        if (startUrls == null || startUrls.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Список стартовых URL пуст");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(crawlJobService.submit(startUrls));
+    }
+
+    @Operation(
+            summary = "Статус задания обхода",
+            description = "Состояние (QUEUED/RUNNING/COMPLETED/CANCELLED/FAILED), обработано страниц, "
+                    + "URL в очереди, найдено контактов и последние события по URL"
+    )
+    @ApiResponse(responseCode = "404", description = "Задание не найдено")
+    @GetMapping("/jobs/{id}")
+    public CrawlJob job(@PathVariable String id) {
+        return crawlJobService.get(id).orElseThrow(() -> jobNotFound(id));
+    }
+
+    @Operation(
+            summary = "События задания обхода (Server-Sent Events)",
+            description = """
+                    Результат по каждому URL (OK/WARN/ERROR) и найденные контакты по мере обработки страниц.
+                    При подключении приходят уже случившиеся события: хранятся только последние
+                    crawler.jobs.event-buffer, более ранние не повторяются.
+                    id события - его номер в задании (сквозной, пропуск номеров - вытесненные события). Поток закрывается, когда задание завершается.
+                    """
+    )
+    @ApiResponse(responseCode = "404", description = "Задание не найдено")
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter jobEvents(@PathVariable String id) {
+        Flux<CrawlEvent> events = crawlJobService.events(id).orElseThrow(() -> jobNotFound(id));
+
+        SseEmitter emitter = new SseEmitter();
+        // send блокируется на медленном клиенте: события копятся в ограниченном буфере подписчика
+        Disposable subscription = events.subscribe(
+                event -> send(emitter, event),
+                emitter::completeWithError,
+                emitter::complete);
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, CrawlEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.seq()))
+                    .name(event.status().name())
+                    .data(event, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            // Клиент отключился
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    @Operation(summary = "Задания обхода (сначала новые)")
+    @GetMapping("/jobs")
+    public List<CrawlJob> jobs() {
+        return crawlJobService.list();
+    }
+
+    @Operation(
+            summary = "Отменить задание обхода",
+            description = "Новые страницы больше не загружаются, начатые дорабатываются; "
+                    + "состояние станет CANCELLED"
+    )
+    @ApiResponse(responseCode = "404", description = "Задание не найдено")
+    @DeleteMapping("/jobs/{id}")
+    public CrawlJob cancelJob(@PathVariable String id) {
+        return crawlJobService.cancel(id).orElseThrow(() -> jobNotFound(id));
+    }
+
+    private static ResponseStatusException jobNotFound(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Задание не найдено: " + id);
+    }
+
 
     public record StartRequest(List<String> startUrls) {}
 }
@@ -0,0 +1,244 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.frontier.Frontier;
+import com.pingme.contactcrawler.frontier.FrontierUrl;
+import com.pingme.contactcrawler.frontier.LinkScorer;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Состояние одного запуска краулера: очередь URL, встреченные URL, лимит страниц, прогресс и события по URL
+public class CrawlContext {
+
+    // Сколько последних событий хранится, если размер не задан
+    public static final int DEFAULT_EVENT_HISTORY = 1000;
+
+    private final int maxPages;
+    private final Frontier frontier;
+    private final UrlSeenFilter seenUrls;
+
+    // Последние eventHistory событий запуска по порядку (кольцевой буфер: новое вытесняет самое старое)
+    // и их живая трансляция подписчикам (SSE); доступ под synchronized (events).
+    // seq у событий сквозной, поэтому по номерам видно, сколько событий вытеснено
+    private final ArrayDeque<CrawlEvent> events;
+    private final int eventHistory;
+    private long lastSeq;
+    private final Sinks.Many<CrawlEvent> live = Sinks.many().multicast().directBestEffort();
+    private boolean eventsClosed;
+
+    // Сколько страниц выдано в обработку (расходует лимит maxPages)
+    private final AtomicInteger pagesStarted = new AtomicInteger();
+
+    // Страницы, выданные воркерам и ещё не обработанные (их ссылки могут пополнить очередь)
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Сколько URL, выданных frontier.poll(), уже учтено (в inFlight или отброшено по лимиту).
+    // Пока оно меньше frontier.polled(), какой-то воркер держит URL, ещё не попавший в inFlight
+    private final AtomicLong claimed = new AtomicLong();
+
+    private final AtomicInteger pagesDone = new AtomicInteger();
+    private final AtomicInteger contactsFound = new AtomicInteger();
+
+    // Обход отменён (DELETE /api/crawler/jobs/{id}): новые страницы не выдаются, начатые дорабатываются
+    private volatile boolean cancelled;
+
+    public CrawlContext(int maxPages, Frontier frontier, UrlSeenFilter seenUrls) {
+        this(maxPages, frontier, seenUrls, 0);
+    }
+
+    // pagesDone - сколько страниц уже обработано (при продолжении обхода из журнала)
+    public CrawlContext(int maxPages, Frontier frontier, UrlSeenFilter seenUrls, int pagesDone) {
+        this(maxPages, frontier, seenUrls, pagesDone, DEFAULT_EVENT_HISTORY);
+    }
+
+    // eventHistory - сколько последних событий хранить для getEvents(), /start и подключения к потоку событий
+    public CrawlContext(int maxPages, Frontier frontier, UrlSeenFilter seenUrls, int pagesDone, int eventHistory) {
+        this.eventHistory = Math.max(1, eventHistory);
+        this.events = new ArrayDeque<>(Math.min(this.eventHistory, 256));
+        this.maxPages = maxPages;
+        this.frontier = frontier;
+        this.seenUrls = seenUrls;
+        this.pagesStarted.set(pagesDone);
+        this.pagesDone.set(pagesDone);
+    }
+
+    // Стартовый URL (или пришедший от другого узла кластера)
+    public void offer(String url) {
+        offer(url, 0, LinkScorer.score(url, 0, 0));
+    }
+
+    // Ссылки обработанной страницы - до pageDone(url) этой страницы; page - её URL из nextUrl(),
+    // ссылки получают её глубину + 1. Приоритет в очереди - по адресу ссылки, глубине и ссылкам tel:/mailto:
+    public void offerLinks(FrontierUrl page, PageResult result) {
+        int depth = page.depth() + 1;
+        for (String link : result.links()) {
+            offer(link, depth, LinkScorer.score(link, depth, result.contactLinks()));
+        }
+    }
+
+    // URL попадает в очередь только при первой встрече, повторы отсекаются фильтром.
+    // Ссылки на хосты другого узла кластера сразу уходят ему: повторы отсечёт фильтр владельца
+    private void offer(String url, int depth, int priority) {
+        if (!frontier.isLocal(url)) {
+            frontier.offer(url, priority);
+        } else if (seenUrls.add(url)) {
+            frontier.offer(url, priority, depth);
+        }
+    }
+
+    // Следующий URL, к хосту которого уже можно обращаться.
+    // Если вернулся не null, после обработки страницы обязательно вызвать pageDone(url.url())
+    public FrontierUrl nextUrl(long timeout, TimeUnit unit) throws InterruptedException {
+        if (isStopped()) {
+            return null;
+        }
+
+        // Ожидание URL не считается обработкой: воркеры, ждущие в poll(), не мешают закончить обход
+        FrontierUrl url = frontier.poll(timeout, unit);
+        if (url == null) {
+            return null;
+        }
+        boolean withinBudget = pagesStarted.incrementAndGet() <= maxPages;
+        if (withinBudget) {
+            inFlight.incrementAndGet();
+        }
+        claimed.incrementAndGet();
+        return withinBudget ? url : null;
+    }
+
+    public void pageDone(String url) {
+        frontier.completed(url);
+        pagesDone.incrementAndGet();
+        inFlight.decrementAndGet();
+    }
+
+    // Страница не обработана из-за остановки (в журнале она остаётся в очереди)
+    public void pageAbandoned() {
+        inFlight.decrementAndGet();
+    }
+
+    // Обход закончен: никто не обрабатывает страницу и очередь пуста.
+    // Ссылки ставятся в очередь до pageDone(url), а claimed увеличивается после inFlight,
+    // поэтому порядок проверок важен: claimed, inFlight, очередь, polled
+    public boolean isDrained() {
+        return isIdle(false);
+    }
+
+    // Запуск окончен: никто не обрабатывает страницу и новых страниц не будет
+    // (очередь пуста, исчерпан лимит или обход отменён)
+    public boolean isFinished() {
+        return isIdle(isStopped());
+    }
+
+    private boolean isIdle(boolean stopped) {
+        long accounted = claimed.get();
+        return inFlight.get() == 0
+                && (stopped || frontier.isEmpty())
+                && frontier.polled() == accounted;
+    }
+
+    public boolean isBudgetExhausted() {
+        return pagesStarted.get() >= maxPages;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // Новые страницы больше не берутся: лимит исчерпан или обход отменён
+    public boolean isStopped() {
+        return cancelled || isBudgetExhausted();
+    }
+
+    public void contactFound() {
+        contactsFound.incrementAndGet();
+    }
+
+    public int getPagesDone() {
+        return pagesDone.get();
+    }
+
+    public int getContactsFound() {
+        return contactsFound.get();
+    }
+
+    public int getQueueSize() {
+        return frontier.size();
+    }
+
+    public UrlSeenFilter getSeenUrls() {
+        return seenUrls;
+    }
+
+    public void addEvent(CrawlEvent event) {
+        synchronized (events) {
+            CrawlEvent numbered = event.withSeq(++lastSeq);
+            if (events.size() == eventHistory) {
+                events.removeFirst();
+            }
+            events.addLast(numbered);
+            live.tryEmitNext(numbered);
+        }
+    }
+
+    // Запуск окончен: подписчики получают завершение потока событий
+    public void closeEvents() {
+        synchronized (events) {
+            eventsClosed = true;
+            live.tryEmitComplete();
+        }
+    }
+
+    // Последние replay событий (не больше eventHistory - более старые уже вытеснены),
+    // затем новые по мере появления; поток завершается вместе с запуском.
+    // Медленный подписчик держит не больше buffer событий: самые старые из непрочитанных отбрасываются,
+    // а доставка идёт не на потоках обхода
+    public Flux<CrawlEvent> streamEvents(int replay, int buffer) {
+        return Flux.<CrawlEvent>create(sink -> {
+                    // Под той же блокировкой, что и addEvent: между историей и живыми событиями нет пропусков
+                    synchronized (events) {
+                        events.stream().skip(Math.max(0, events.size() - replay)).forEach(sink::next);
+                        if (eventsClosed) {
+                            sink.complete();
+                            return;
+                        }
+                        Disposable subscription = live.asFlux().subscribe(sink::next, sink::error, sink::complete);
+                        sink.onDispose(subscription);
+                    }
+                }, FluxSink.OverflowStrategy.BUFFER)
+                .onBackpressureBuffer(buffer, dropped -> { }, BufferOverflowStrategy.DROP_OLDEST)
+                .publishOn(Schedulers.boundedElastic());
+    }
+
+    // Последние eventHistory событий
+    public List<CrawlEvent> getEvents() {
+        synchronized (events) {
+            return List.copyOf(events);
+        }
+    }
+
+    public List<CrawlEvent> getLastEvents(int limit) {
+        synchronized (events) {
+            return events.stream().skip(Math.max(0, events.size() - limit)).toList();
+        }
+    }
+
+    // События строками, как их возвращал синхронный /api/crawler/start (тоже только последние eventHistory)
+    public List<String> getStatusMessages() {
+        return getEvents().stream().map(CrawlEvent::text).toList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.pingme.contactcrawler.crawler;
+
+// Движок обхода: выполняет один запуск краулера до исчерпания очереди или лимита страниц
+public interface CrawlEngine {
+
+    CrawlMode mode();
+
+    void run(CrawlContext context);
+}
@@ -0,0 +1,51 @@
+package com.pingme.contactcrawler.crawler;
+
+import java.time.Instant;
+import java.util.List;
+
+// Результат обработки одного URL в рамках запуска: статус, вид события, сообщение и найденные контакты.
+// seq - порядковый номер события внутри запуска (присваивает CrawlContext)
+public record CrawlEvent(long seq,
+                         Instant at,
+                         Status status,
+                         Kind kind,
+                         String url,
+                         String message,
+                         List<String> phones,
+                         String email) {
+
+    public enum Status { OK, WARN, ERROR }
+
+    public enum Kind {
+        CONTACTS(Status.OK),
+        UNCHANGED(Status.OK),
+        NO_CONTACTS(Status.WARN),
+        EMPTY_HTML(Status.WARN),
+        TRUNCATED(Status.WARN),
+        INVALID_URL(Status.WARN),
+        FETCH_ERROR(Status.ERROR);
+
+        private final Status status;
+
+        Kind(Status status) {
+            this.status = status;
+        }
+    }
+
+    public static CrawlEvent of(Kind kind, String url, String message) {
+        return new CrawlEvent(0, Instant.now(), kind.status, kind, url, message, List.of(), null);
+    }
+
+    public static CrawlEvent contacts(String url, List<String> phones, String email, String message) {
+        return new CrawlEvent(0, Instant.now(), Status.OK, Kind.CONTACTS, url, message, List.copyOf(phones), email);
+    }
+
+    CrawlEvent withSeq(long seq) {
+        return new CrawlEvent(seq, at, status, kind, url, message, phones, email);
+    }
+
+    // Строка для лога и синхронного /api/crawler/start: "OK: url — сообщение"
+    public String text() {
+        return status + ": " + url + " — " + message;
+    }
+}
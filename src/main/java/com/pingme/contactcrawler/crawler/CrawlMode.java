@@ -0,0 +1,11 @@
+package com.pingme.contactcrawler.crawler;
+
+// Способ выполнения обхода (crawler.mode в application.yml)
+public enum CrawlMode {
+    // Фиксированный пул платформенных потоков, каждый блокируется на загрузке страницы
+    PLATFORM,
+    // Неблокирующий конвейер Reactor: загрузка -> разбор -> пакетная запись
+    REACTIVE,
+    // Виртуальный поток на каждую загрузку, конкурентность ограничена семафорами
+    VIRTUAL
+}
@@ -0,0 +1,205 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import static io.micrometer.core.instrument.Metrics.globalRegistry;
+
+// Метрики краулера (crawler_*), общие для всех режимов обхода
+@Component
+public class CrawlerMetrics {
+
+    private final Timer parseTimer = Timer.builder("crawler.parse")
+            .description("Time spent on parsing HTML (extract email/phones/links)")
+            .publishPercentileHistogram()
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(globalRegistry);
+
+    private final Counter parseSuccess = Counter.builder("crawler.parse.success")
+            .description("Number of successful page parses")
+            .register(globalRegistry);
+
+    private final Counter parseError = Counter.builder("crawler.parse.error")
+            .description("Number of failed page parses")
+            .register(globalRegistry);
+
+    private final Counter errHttp4xx = Counter.builder("crawler.parse.error.reason")
+            .tag("reason", "http_4xx")
+            .description("Parse errors grouped by reason")
+            .register(globalRegistry);
+
+    private final Counter errHttp5xx = Counter.builder("crawler.parse.error.reason")
+            .tag("reason", "http_5xx")
+            .description("Parse errors grouped by reason")
+            .register(globalRegistry);
+
+    private final Counter errTimeout = Counter.builder("crawler.parse.error.reason")
+            .tag("reason", "timeout")
+            .description("Parse errors grouped by reason")
+            .register(globalRegistry);
+
+    private final Counter errConnection = Counter.builder("crawler.parse.error.reason")
+            .tag("reason", "connection")
+            .description("Parse errors grouped by reason")
+            .register(globalRegistry);
+
+    private final Counter errEmptyHtml = Counter.builder("crawler.parse.error.reason")
+            .tag("reason", "empty_html")
+            .description("Parse errors grouped by reason")
+            .register(globalRegistry);
+
+    private final Counter errOther = Counter.builder("crawler.parse.error.reason")
+            .tag("reason", "other")
+            .description("Parse errors grouped by reason")
+            .register(globalRegistry);
+
+    private final Counter dbSaved = Counter.builder("crawler.db.saved")
+            .description("Number of ContactInfo records saved to DB")
+            .register(globalRegistry);
+
+    private final Counter unchangedNotModified = Counter.builder("crawler.page.unchanged")
+            .tag("reason", "not_modified")
+            .description("Pages skipped on recrawl because they did not change")
+            .register(globalRegistry);
+
+    private final Counter unchangedSameHash = Counter.builder("crawler.page.unchanged")
+            .tag("reason", "same_hash")
+            .description("Pages skipped on recrawl because they did not change")
+            .register(globalRegistry);
+
+    private final Counter truncatedByteBudget = Counter.builder("crawler.fetch.truncated")
+            .tag("reason", PageBody.BYTE_BUDGET)
+            .description("Pages whose body was not read to the end")
+            .register(globalRegistry);
+
+    private final Counter truncatedContactsFound = Counter.builder("crawler.fetch.truncated")
+            .tag("reason", PageBody.CONTACTS_FOUND)
+            .description("Pages whose body was not read to the end")
+            .register(globalRegistry);
+
+    // Множества посещённых URL текущих запусков (для gauge-метрик)
+    private final Set<UrlSeenFilter> activeSeenFilters = ConcurrentHashMap.newKeySet();
+
+    public CrawlerMetrics() {
+        Gauge.builder("crawler.seen.memory", activeSeenFilters,
+                        filters -> filters.stream().mapToLong(UrlSeenFilter::memoryBytes).sum())
+                .description("Memory used by visited-URL Bloom filters")
+                .baseUnit("bytes")
+                .register(globalRegistry);
+
+        Gauge.builder("crawler.seen.urls", activeSeenFilters,
+                        filters -> filters.stream().mapToLong(UrlSeenFilter::size).sum())
+                .description("Number of URLs recorded in visited-URL filters")
+                .register(globalRegistry);
+
+        Gauge.builder("crawler.seen.false.positive.rate", activeSeenFilters,
+                        filters -> filters.stream().mapToDouble(UrlSeenFilter::falsePositiveRate).max().orElse(0))
+                .description("Estimated false positive rate of visited-URL filters (worst of active crawls)")
+                .register(globalRegistry);
+    }
+
+    public void trackSeenFilter(UrlSeenFilter filter) {
+        activeSeenFilters.add(filter);
+    }
+
+    public void untrackSeenFilter(UrlSeenFilter filter) {
+        activeSeenFilters.remove(filter);
+    }
+
+    public Timer parseTimer() {
+        return parseTimer;
+    }
+
+    public void parseSucceeded() {
+        parseSuccess.increment();
+    }
+
+    public void contactSaved() {
+        dbSaved.increment();
+    }
+
+    // reason: not_modified (ответ 304) или same_hash (тело совпало с прошлым)
+    public void pageUnchanged(String reason) {
+        if ("not_modified".equals(reason)) {
+            unchangedNotModified.increment();
+        } else {
+            unchangedSameHash.increment();
+        }
+    }
+
+    // reason: byte_budget (прочитано max-body-size) или contacts_found (stop-when-contacts-found)
+    public void pageTruncated(String reason) {
+        if (PageBody.BYTE_BUDGET.equals(reason)) {
+            truncatedByteBudget.increment();
+        } else {
+            truncatedContactsFound.increment();
+        }
+    }
+
+    public void emptyHtml() {
+        parseError.increment();
+        errEmptyHtml.increment();
+    }
+
+    public void fetchFailed(Throwable e) {
+        parseError.increment();
+        incrementErrorReason(e);
+    }
+
+    private void incrementErrorReason(Throwable e) {
+        String reason = classifyErrorReason(e);
+        switch (reason) {
+            case "http_4xx" -> errHttp4xx.increment();
+            case "http_5xx" -> errHttp5xx.increment();
+            case "timeout" -> errTimeout.increment();
+            case "connection" -> errConnection.increment();
+            case "empty_html" -> errEmptyHtml.increment();
+            default -> errOther.increment();
+        }
+    }
+
+    private String classifyErrorReason(Throwable e) {
+        if (e instanceof WebClientResponseException wcre) {
+            HttpStatusCode status = wcre.getStatusCode();
+            if (status.is4xxClientError()) return "http_4xx";
+            if (status.is5xxServerError()) return "http_5xx";
+            return "other";
+        }
+
+        if (e instanceof WebClientRequestException) {
+            if (hasCause(e, ConnectException.class) || hasCause(e, UnknownHostException.class)) {
+                return "connection";
+            }
+        }
+
+        if (hasCause(e, TimeoutException.class) || hasCause(e, io.netty.handler.timeout.TimeoutException.class)) {
+            return "timeout";
+        }
+        if (e.getMessage() != null && e.getMessage().toLowerCase().contains("timeout")) {
+            return "timeout";
+        }
+
+        return "other";
+    }
+
+    private boolean hasCause(Throwable e, Class<? extends Throwable> causeClass) {
+        Throwable cur = e;
+        while (cur != null) {
+            if (causeClass.isInstance(cur)) return true;
+            cur = cur.getCause();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,10 @@
+package com.pingme.contactcrawler.crawler;
+
+// Ответ сайта на загрузку страницы. Тело разобрано ещё при чтении из сети (PageBodyReader).
+// notModified - сервер ответил 304 на условный запрос (If-None-Match / If-Modified-Since), тела нет
+public record FetchedPage(String url, PageBody body, String etag, String lastModified, boolean notModified) {
+
+    public static FetchedPage notModified(String url) {
+        return new FetchedPage(url, null, null, null, true);
+    }
+}
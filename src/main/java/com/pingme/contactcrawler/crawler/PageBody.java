@@ -0,0 +1,35 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.parser.PageContacts;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Итог разбора тела страницы: контакты и ссылки, хэш текста, сколько байт прочитано и время разбора.
+// stopReason - почему чтение остановлено до конца тела (null - тело прочитано целиком)
+public record PageBody(PageContacts contacts, long hash, long bytes, long parseNanos, String stopReason) {
+
+    public static final String BYTE_BUDGET = "byte_budget";
+    public static final String CONTACTS_FOUND = "contacts_found";
+
+    public boolean isEmpty() {
+        return bytes == 0;
+    }
+
+    public boolean isTruncated() {
+        return stopReason != null;
+    }
+
+    // Разбор уже загруженной страницы целиком (тесты, бенчмарки)
+    public static PageBody parse(String html) {
+        return parse(html.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8, false);
+    }
+
+    // charset == null - кодировка определяется по <meta>; byteParsing - разбор без декодирования в символы
+    public static PageBody parse(byte[] body, Charset charset, boolean byteParsing) {
+        PageBodyReader reader = new PageBodyReader(charset, Long.MAX_VALUE, false, byteParsing);
+        reader.accept(ByteBuffer.wrap(body));
+        return reader.finish();
+    }
+}
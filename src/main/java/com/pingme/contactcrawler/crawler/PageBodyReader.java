@@ -0,0 +1,177 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.parser.ContactExtractor;
+import com.pingme.contactcrawler.parser.PageContacts;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Разбор тела страницы по мере поступления из сети: порции сразу уходят в ContactExtractor,
+// тело целиком в памяти не собирается.
+// Кодировка - из Content-Type, иначе из <meta charset> в начале страницы, иначе UTF-8.
+// Для ASCII-совместимых кодировок (byteParsing) байты разбираются без декодирования в символы,
+// для остальных - декодируются небольшими порциями.
+// Чтение останавливается, когда прочитано maxBytes байт или (stopWhenFound) найден первый контакт.
+// Один объект = одна страница, не потокобезопасен
+class PageBodyReader {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Где искать <meta charset=...>
+    private static final int META_SNIFF_BYTES = 1024;
+    private static final Pattern META_CHARSET =
+            Pattern.compile("<meta[^>]+charset\\s*=\\s*[\"']?\\s*([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+
+    private final Charset headerCharset;
+    private final long maxBytes;
+    private final boolean stopWhenFound;
+    private final boolean byteParsing;
+
+    private final PageContacts contacts = new PageContacts();
+
+    // Создаются по первой порции, когда известна кодировка
+    private ContactExtractor extractor;
+    private CharsetDecoder decoder;
+
+    // Байты, ещё не декодированные (в том числе неполный символ на стыке порций)
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+
+    private long bytes;
+    private long hash = PageValidatorStore.HASH_SEED;
+    private long parseNanos;
+    private String stopReason;
+
+    // headerCharset - кодировка из Content-Type или null
+    PageBodyReader(Charset headerCharset, long maxBytes, boolean stopWhenFound, boolean byteParsing) {
+        this.headerCharset = headerCharset;
+        this.maxBytes = maxBytes;
+        this.stopWhenFound = stopWhenFound;
+        this.byteParsing = byteParsing;
+    }
+
+    // Порция тела из сети (буфер освобождается здесь); false - дальше читать не нужно
+    boolean accept(DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            boolean more = true;
+            while (more && chunks.hasNext()) {
+                more = accept(chunks.next());
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return stopReason == null;
+    }
+
+    boolean accept(ByteBuffer chunk) {
+        long start = System.nanoTime();
+        if (extractor == null) {
+            start(chunk);
+        }
+        if (chunk.remaining() > maxBytes - bytes) {
+            chunk.limit(chunk.position() + (int) (maxBytes - bytes));
+        }
+        bytes += chunk.remaining();
+
+        if (decoder == null) {
+            hash = PageValidatorStore.hash(hash, chunk.duplicate());
+            extractor.feed(chunk);
+        } else {
+            while (chunk.hasRemaining()) {
+                int n = Math.min(in.remaining(), chunk.remaining());
+                int limit = chunk.limit();
+                chunk.limit(chunk.position() + n);
+                in.put(chunk);
+                chunk.limit(limit);
+                decode(false);
+            }
+        }
+
+        if (bytes >= maxBytes) {
+            stopReason = PageBody.BYTE_BUDGET;
+        } else if (stopWhenFound && contacts.hasContacts()) {
+            stopReason = PageBody.CONTACTS_FOUND;
+        }
+        parseNanos += System.nanoTime() - start;
+        return stopReason == null;
+    }
+
+    // Конец тела (или остановка чтения): дожимаем декодер и извлекатель
+    PageBody finish() {
+        long start = System.nanoTime();
+        if (extractor == null) {
+            start(ByteBuffer.allocate(0));
+        }
+        if (decoder != null) {
+            decode(true);
+            decoder.flush(out);
+            emit();
+        }
+        extractor.finish();
+        parseNanos += System.nanoTime() - start;
+        return new PageBody(contacts, hash, bytes, parseNanos, stopReason);
+    }
+
+    private void start(ByteBuffer head) {
+        Charset charset = headerCharset;
+        if (charset == null) {
+            charset = charsetFromMeta(head);
+        }
+        if (charset == null) {
+            charset = StandardCharsets.UTF_8;
+        }
+
+        if (byteParsing && ContactExtractor.supportsBytes(charset)) {
+            extractor = new ContactExtractor(contacts, charset);
+        } else {
+            extractor = new ContactExtractor(contacts);
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    }
+
+    // <meta charset="windows-1251"> или <meta http-equiv="Content-Type" content="text/html; charset=...">
+    // в первых байтах страницы; null - не найдено или кодировка неизвестна
+    static Charset charsetFromMeta(ByteBuffer head) {
+        ByteBuffer sniff = head.duplicate();
+        sniff.limit(sniff.position() + Math.min(sniff.remaining(), META_SNIFF_BYTES));
+        Matcher matcher = META_CHARSET.matcher(StandardCharsets.ISO_8859_1.decode(sniff));
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return Charset.forName(matcher.group(1));
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return null;
+        }
+    }
+
+    private void decode(boolean endOfInput) {
+        in.flip();
+        CoderResult result;
+        do {
+            result = decoder.decode(in, out, endOfInput);
+            emit();
+        } while (result.isOverflow());
+        in.compact();
+    }
+
+    private void emit() {
+        out.flip();
+        hash = PageValidatorStore.hash(hash, out);
+        extractor.feed(out, 0, out.length());
+        out.clear();
+    }
+}
@@ -0,0 +1,98 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.Charset;
+import java.time.Duration;
+
+// Загрузка HTML страницы. Возвращает Mono: блокирующие режимы вызывают block(), reactive - нет.
+// Для уже загружавшейся страницы с ETag / Last-Modified запрос условный: сервер может ответить 304 без тела.
+// Тело не собирается в строку: порции из сети сразу разбираются (PageBodyReader), а лишнее не дочитывается.
+// Разбор идёт на пуле crawlerParseScheduler - потоки event loop Netty заняты только вводом-выводом.
+// Клиент общий для всех режимов (CrawlerConfig.crawlerWebClient): пул соединений, HTTP/2, сжатие, таймауты
+@Component
+public class PageFetcher {
+
+    private final WebClient webClient;
+    private final Duration fetchTimeout;
+    private final long maxBodySize;
+    private final boolean stopWhenContactsFound;
+    private final boolean byteParsing;
+    private final PageValidatorStore validatorStore;
+    private final Scheduler parseScheduler;
+
+    public PageFetcher(WebClient crawlerWebClient,
+                       Scheduler crawlerParseScheduler,
+                       CrawlerProperties properties,
+                       PageValidatorStore validatorStore) {
+        this.webClient = crawlerWebClient;
+        this.parseScheduler = crawlerParseScheduler;
+        this.fetchTimeout = properties.getFetchTimeout();
+        this.maxBodySize = properties.getHttp().getMaxBodySize().toBytes();
+        this.stopWhenContactsFound = properties.getHttp().isStopWhenContactsFound();
+        this.byteParsing = properties.getHttp().isByteParsing();
+        this.validatorStore = validatorStore;
+    }
+
+    public Mono<FetchedPage> fetch(String url) {
+        return fetch(url, validatorStore.conditional(url), false);
+    }
+
+    private Mono<FetchedPage> fetch(String url, PageValidatorStore.Validators conditional, boolean retry) {
+        return webClient
+                .get()
+                .uri(url)
+                .headers(headers -> {
+                    if (conditional != null && conditional.etag() != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, conditional.etag());
+                    }
+                    if (conditional != null && conditional.lastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, conditional.lastModified());
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+                        if (conditional != null) {
+                            return response.releaseBody().thenReturn(FetchedPage.notModified(url));
+                        }
+                        // 304 на безусловный запрос (например, от кэширующего прокси): тела нет,
+                        // один раз запрашиваем заново, дальше - пустая страница
+                        if (!retry) {
+                            return response.releaseBody().then(fetch(url, null, true));
+                        }
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.<FetchedPage>createError();
+                    }
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    String etag = headers.getETag();
+                    String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+                    // Без charset в заголовке кодировку определит PageBodyReader по <meta>
+                    Charset charset = response.headers().contentType()
+                            .map(MediaType::getCharset)
+                            .orElse(null);
+
+                    // Как только читать дальше не нужно, подписка отменяется и соединение закрывается
+                    PageBodyReader reader = new PageBodyReader(
+                            charset, maxBodySize, stopWhenContactsFound, byteParsing);
+                    return response.bodyToFlux(DataBuffer.class)
+                            .publishOn(parseScheduler)
+                            .map(reader::accept)
+                            .takeUntil(more -> !more)
+                            // Порции, оставшиеся в очереди publishOn после отмены, освобождаются
+                            .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                            .then(Mono.fromSupplier(() ->
+                                    new FetchedPage(url, reader.finish(), etag, lastModified, false)));
+                })
+                .timeout(fetchTimeout);
+    }
+}
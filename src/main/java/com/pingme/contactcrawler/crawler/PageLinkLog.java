@@ -0,0 +1,142 @@
+package com.pingme.contactcrawler.crawler;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Ссылки загруженных страниц на диске: при ответе 304 страница не разбирается, а её ссылки
+// берутся отсюда. В памяти (PageValidatorStore) - только номер файла и позиция записи.
+//
+// Файлы links-<N>.bin только дописываются, записи: [длина 4 байта][ссылки через '\n' в UTF-8].
+// Файл дорос до maxSize - начинается следующий; предыдущий ещё читается (страница могла быть
+// запрошена до смены), более старые удаляются. Так на диске не больше 2 * maxSize.
+// Это кэш: после перезапуска приложения валидаторов в памяти нет, и старые файлы удаляются
+final class PageLinkLog implements Closeable {
+
+    // Страница без ссылок: на диск ничего не пишется
+    static final Ref EMPTY = new Ref(-1, -1);
+
+    record Ref(int file, long position) { }
+
+    private static final String PREFIX = "links-";
+    private static final String SUFFIX = ".bin";
+
+    private final Path dir;
+    private final long maxSize;
+
+    // Доступ под synchronized (this); файлы открываются при первой записи
+    private int generation = -1;
+    private FileChannel current;
+    private FileChannel previous;
+    private long size;
+
+    PageLinkLog(Path dir, long maxSize) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+    }
+
+    synchronized Ref append(List<String> links) throws IOException {
+        if (links.isEmpty()) {
+            return EMPTY;
+        }
+        byte[] bytes = String.join("\n", links).getBytes(StandardCharsets.UTF_8);
+        // Канал мог закрыться прерыванием читавшего потока - тогда тоже новый файл
+        if (current == null || !current.isOpen() || (size > 0 && size + 4 + bytes.length > maxSize)) {
+            rotate();
+        }
+        ByteBuffer record = ByteBuffer.allocate(4 + bytes.length).putInt(bytes.length).put(bytes).flip();
+        long position = size;
+        while (record.hasRemaining()) {
+            size += current.write(record, size);
+        }
+        return new Ref(generation, position);
+    }
+
+    // null - файл уже удалён (или недоступен), ссылки потеряны
+    List<String> read(Ref ref) {
+        if (ref.position() < 0) {
+            return List.of();
+        }
+        FileChannel channel;
+        synchronized (this) {
+            channel = ref.file() == generation ? current
+                    : ref.file() == generation - 1 ? previous
+                    : null;
+        }
+        if (channel == null) {
+            return null;
+        }
+        try {
+            int length = read(channel, ref.position(), 4).getInt();
+            String joined = StandardCharsets.UTF_8.decode(read(channel, ref.position() + 4, length)).toString();
+            return List.of(joined.split("\n"));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Можно ли ещё прочитать ссылки по ref
+    synchronized boolean isReadable(Ref ref) {
+        return ref.position() < 0
+                || (ref.file() == generation && current != null && current.isOpen())
+                || (ref.file() == generation - 1 && previous != null && previous.isOpen());
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    // Вызывать под synchronized (this)
+    private void rotate() throws IOException {
+        if (generation < 0) {
+            Files.createDirectories(dir);
+            deleteFiles();
+        }
+        if (previous != null) {
+            previous.close();
+            Files.deleteIfExists(file(generation - 1));
+        }
+        previous = current;
+        generation++;
+        current = FileChannel.open(file(generation), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        size = 0;
+    }
+
+    private Path file(int n) {
+        return dir.resolve(PREFIX + n + SUFFIX);
+    }
+
+    // Файлы от прошлого запуска приложения
+    private void deleteFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (previous != null) {
+            previous.close();
+        }
+        if (current != null) {
+            current.close();
+        }
+    }
+}
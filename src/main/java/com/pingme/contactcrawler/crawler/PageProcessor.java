@@ -0,0 +1,143 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.frontier.LinkScorer;
+import com.pingme.contactcrawler.frontier.UrlCanonicalizer;
+import com.pingme.contactcrawler.logging.LoggingService;
+import com.pingme.contactcrawler.parser.PageContacts;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Обработка загруженной страницы: разбор, метрики и статусные сообщения.
+// Не хранит состояния, поэтому вызывается из любых потоков любого режима обхода
+@Component
+public class PageProcessor {
+
+    private final CrawlerMetrics metrics;
+    private final LoggingService loggingService;
+    private final UrlCanonicalizer canonicalizer;
+    private final PageValidatorStore validatorStore;
+
+    public PageProcessor(CrawlerMetrics metrics,
+                         LoggingService loggingService,
+                         UrlCanonicalizer canonicalizer,
+                         PageValidatorStore validatorStore) {
+        this.metrics = metrics;
+        this.loggingService = loggingService;
+        this.canonicalizer = canonicalizer;
+        this.validatorStore = validatorStore;
+    }
+
+    public PageResult process(FetchedPage page, CrawlContext context) {
+        String url = page.url();
+        PageBody body = page.body();
+        PageValidatorStore.Validators known = validatorStore.get(url);
+
+        // Страница не изменилась с прошлого обхода: контакты уже в БД, ссылки - сохранённые при прошлой загрузке
+        if (page.notModified()) {
+            List<String> links = known != null ? validatorStore.links(known) : null;
+            return unchanged(url, links != null ? links : List.of(), "not_modified", context);
+        }
+
+        if (body == null || body.isEmpty()) {
+            metrics.emptyHtml();
+            report(context, CrawlEvent.of(CrawlEvent.Kind.EMPTY_HTML, url,
+                    "не удалось получить HTML (пустой ответ)"));
+            return PageResult.empty(url);
+        }
+
+        PageContacts contacts = body.contacts();
+        List<String> links = canonicalLinks(url, contacts.getLinks());
+        long bodyHash = body.hash();
+        validatorStore.put(url, page.etag(), page.lastModified(), bodyHash, links);
+
+        if (known != null && known.bodyHash() == bodyHash) {
+            // Тело то же самое: контакты уже в БД, ссылки - из только что разобранного тела
+            return unchanged(url, links, "same_hash", context);
+        }
+
+        // Email, телефоны и ссылки извлечены за один проход ещё при чтении тела
+        metrics.parseTimer().record(body.parseNanos(), TimeUnit.NANOSECONDS);
+        if (body.isTruncated()) {
+            metrics.pageTruncated(body.stopReason());
+            if (PageBody.BYTE_BUDGET.equals(body.stopReason())) {
+                report(context, CrawlEvent.of(CrawlEvent.Kind.TRUNCATED, url,
+                        "страница слишком большая, разобраны первые " + body.bytes() + " байт"));
+            }
+        }
+
+        metrics.parseSucceeded();
+
+        String email = contacts.getEmail();
+        List<String> phones = contacts.getPhones();
+        ContactInfo info = null;
+
+        if (contacts.hasContacts()) {
+            String phonesStr = String.join(", ", phones);
+
+            info = new ContactInfo(
+                    url,
+                    url,
+                    phonesStr,
+                    email,
+                    null
+            );
+            metrics.contactSaved();
+            context.contactFound();
+
+            report(context, CrawlEvent.contacts(url, phones, email, "телефонов: "
+                    + phones.size() + ", email: " + (email != null ? email : "нет")));
+        } else {
+            report(context, CrawlEvent.of(CrawlEvent.Kind.NO_CONTACTS, url,
+                    "телефоны и email не найдены в HTML. "
+                            + "Возможно, контакты подгружаются через JavaScript "
+                            + "или страница использует нестандартную верстку."));
+        }
+
+        return new PageResult(url, info, links, contactLinks(contacts.getLinks()));
+    }
+
+    private PageResult unchanged(String url, List<String> links, String reason, CrawlContext context) {
+        metrics.pageUnchanged(reason);
+        report(context, CrawlEvent.of(CrawlEvent.Kind.UNCHANGED, url,
+                "страница не изменилась с прошлого обхода, запись в БД пропущена"));
+        return new PageResult(url, null, links);
+    }
+
+    // Относительные ссылки разрешаются от адреса страницы, не-веб ссылки (mailto:, tel:) отбрасываются
+    private List<String> canonicalLinks(String pageUrl, List<String> hrefs) {
+        List<String> links = new ArrayList<>(hrefs.size());
+        for (String href : hrefs) {
+            String link = canonicalizer.canonicalize(pageUrl, href);
+            if (link != null) {
+                links.add(link);
+            }
+        }
+        return links;
+    }
+
+    private static int contactLinks(List<String> hrefs) {
+        int count = 0;
+        for (String href : hrefs) {
+            if (LinkScorer.isContactLink(href)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public PageResult failed(String url, Throwable e, CrawlContext context) {
+        metrics.fetchFailed(e);
+        report(context, CrawlEvent.of(CrawlEvent.Kind.FETCH_ERROR, url,
+                "ошибка при загрузке: " + e.getClass().getSimpleName() + " - " + e.getMessage()));
+        return PageResult.empty(url);
+    }
+
+    private void report(CrawlContext context, CrawlEvent event) {
+        loggingService.log(event.text());
+        context.addEvent(event);
+    }
+}
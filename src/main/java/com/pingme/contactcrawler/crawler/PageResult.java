@@ -0,0 +1,18 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+
+import java.util.List;
+
+// Итог обработки одной страницы: запись для БД (или null), найденные ссылки
+// и число ссылок tel:/mailto: на ней (поднимает приоритет её ссылок в очереди)
+public record PageResult(String url, ContactInfo contact, List<String> links, int contactLinks) {
+
+    public PageResult(String url, ContactInfo contact, List<String> links) {
+        this(url, contact, links, 0);
+    }
+
+    public static PageResult empty(String url) {
+        return new PageResult(url, null, List.of());
+    }
+}
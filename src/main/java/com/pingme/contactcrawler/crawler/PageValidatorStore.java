@@ -0,0 +1,109 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.logging.LoggingService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Что известно о ранее загруженных страницах: валидаторы HTTP (ETag, Last-Modified), хэш тела
+// и где на диске лежат их ссылки (PageLinkLog). Для страницы с валидаторами запрос условный:
+// при ответе 304 тело не грузится, а ссылки берутся с диска. Без валидаторов страница загружается
+// целиком, но при том же хэше тела не пишется в БД. Хранится не больше maxPages страниц,
+// давно не встречавшиеся вытесняются
+@Component
+public class PageValidatorStore {
+
+    // links - ссылки страницы на диске; null - не сохранились
+    public record Validators(String etag, String lastModified, long bodyHash, PageLinkLog.Ref links) {
+
+        // По этим валидаторам можно делать условный запрос
+        public boolean isConditional() {
+            return links != null && (etag != null || lastModified != null);
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<String, Validators> pages;
+    private final PageLinkLog linkLog;
+    private final LoggingService loggingService;
+
+    public PageValidatorStore(CrawlerProperties properties, LoggingService loggingService) {
+        CrawlerProperties.Recrawl recrawl = properties.getRecrawl();
+        this.enabled = recrawl.isEnabled();
+        this.linkLog = new PageLinkLog(recrawl.getLinksDir(), recrawl.getLinksMaxSize().toBytes());
+        this.loggingService = loggingService;
+        int maxPages = recrawl.getMaxPages();
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Validators> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    public synchronized Validators get(String url) {
+        return enabled ? pages.get(url) : null;
+    }
+
+    // Валидаторы, с которыми страницу можно запросить условно; null - запрос безусловный
+    public Validators conditional(String url) {
+        Validators known = get(url);
+        return known != null && known.isConditional() && linkLog.isReadable(known.links()) ? known : null;
+    }
+
+    // Ссылки страницы, сохранённые при прошлой загрузке; null - уже не доступны
+    public List<String> links(Validators validators) {
+        return validators.links() != null ? linkLog.read(validators.links()) : null;
+    }
+
+    public void put(String url, String etag, String lastModified, long bodyHash, List<String> links) {
+        if (!enabled) {
+            return;
+        }
+        PageLinkLog.Ref ref = null;
+        // Без валидаторов условного запроса не будет - и ссылки хранить незачем
+        if (etag != null || lastModified != null) {
+            try {
+                ref = linkLog.append(links);
+            } catch (IOException e) {
+                loggingService.log("WARN: не удалось сохранить ссылки страницы " + url + ": " + e.getMessage());
+            }
+        }
+        Validators validators = new Validators(etag, lastModified, bodyHash, ref);
+        synchronized (this) {
+            pages.put(url, validators);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        linkLog.close();
+    }
+
+    // 64-битный FNV-1a по символам тела страницы
+    public static final long HASH_SEED = 0xcbf29ce484222325L;
+
+    // Продолжение хэша следующей порцией текста (тело разбирается по частям, начиная с HASH_SEED)
+    public static long hash(long h, CharSequence chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            h ^= chunk.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // То же по байтам (байтовый разбор страницы без декодирования)
+    public static long hash(long h, ByteBuffer chunk) {
+        while (chunk.hasRemaining()) {
+            h ^= chunk.get() & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
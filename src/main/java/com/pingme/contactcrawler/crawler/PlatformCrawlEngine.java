@@ -0,0 +1,163 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.frontier.FrontierUrl;
+import com.pingme.contactcrawler.logging.LoggingService;
+import com.pingme.contactcrawler.service.ContactWriteBehind;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Режим platform: общий пул из workers потоков на все запуски. Каждый запуск - своя сессия
+// (очередь, посещённые URL, лимит страниц, статусы в CrawlContext); воркеры по кругу берут
+// по одной странице из каждой активной сессии, поэтому параллельные обходы (плановый и ручные)
+// делят потоки поровну и не ждут окончания друг друга.
+// Найденные контакты уходят в общую очередь записи в БД
+@Component
+public class PlatformCrawlEngine implements CrawlEngine {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    // Сколько ждать URL одной сессии, прежде чем перейти к следующей
+    private static final long SESSION_POLL_MILLIS = 10;
+
+    private final PageFetcher pageFetcher;
+    private final PageProcessor pageProcessor;
+    private final ContactWriteBehind writeBehind;
+    private final LoggingService loggingService;
+    private final int workers;
+    private final ExecutorService executorService;
+
+    // Активные сессии; доступ под synchronized (sessions)
+    private final List<CrawlContext> sessions = new ArrayList<>();
+    private int nextSession;
+
+    public PlatformCrawlEngine(PageFetcher pageFetcher,
+                               PageProcessor pageProcessor,
+                               ContactWriteBehind writeBehind,
+                               LoggingService loggingService,
+                               CrawlerProperties properties) {
+        this.pageFetcher = pageFetcher;
+        this.pageProcessor = pageProcessor;
+        this.writeBehind = writeBehind;
+        this.loggingService = loggingService;
+        this.workers = properties.getWorkers();
+        this.executorService = Executors.newFixedThreadPool(workers);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            executorService.submit(this::workerLoop);
+        }
+    }
+
+    @Override
+    public CrawlMode mode() {
+        return CrawlMode.PLATFORM;
+    }
+
+    // Регистрирует сессию и ждёт, пока воркеры её не закончат
+    @Override
+    public void run(CrawlContext context) {
+        synchronized (sessions) {
+            sessions.add(context);
+            sessions.notifyAll();
+        }
+        try {
+            while (!context.isFinished()) {
+                Thread.sleep(IDLE_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            remove(context);
+        }
+    }
+
+    private void workerLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                CrawlContext context = nextSession();
+                FrontierUrl next = context.nextUrl(SESSION_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    // Очередь сессии может быть пуста только временно: другие воркеры ещё добавят ссылки
+                    if (context.isFinished()) {
+                        remove(context);
+                    }
+                    continue;
+                }
+                try {
+                    if (!crawlPage(next, context)) {
+                        break;
+                    }
+                } catch (RuntimeException e) {
+                    // Ошибка одной страницы не должна останавливать воркер всех сессий
+                    loggingService.log("ERROR: ошибка в одном из потоков краулера: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Сессии по кругу: каждая следующая страница - из следующей активной сессии
+    private CrawlContext nextSession() throws InterruptedException {
+        synchronized (sessions) {
+            while (sessions.isEmpty()) {
+                sessions.wait();
+            }
+            nextSession = (nextSession + 1) % sessions.size();
+            return sessions.get(nextSession);
+        }
+    }
+
+    private void remove(CrawlContext context) {
+        synchronized (sessions) {
+            sessions.remove(context);
+        }
+    }
+
+    // false - поток прерван остановкой приложения
+    private boolean crawlPage(FrontierUrl next, CrawlContext context) throws InterruptedException {
+        String url = next.url();
+        boolean abandoned = false;
+        try {
+            PageResult result;
+            try {
+                FetchedPage page = pageFetcher.fetch(url).block();
+                result = pageProcessor.process(page, context);
+            } catch (Exception e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // Остановка приложения: страница остаётся в журнале и загрузится при продолжении
+                    abandoned = true;
+                    return false;
+                }
+                result = pageProcessor.failed(url, e, context);
+            }
+
+            if (result.contact() != null) {
+                writeBehind.submit(result.contact());
+            }
+            context.offerLinks(next, result);
+            return true;
+        } finally {
+            if (abandoned) {
+                context.pageAbandoned();
+            } else {
+                context.pageDone(url);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,95 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.frontier.FrontierUrl;
+import com.pingme.contactcrawler.service.ContactWriteBehind;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+// Режим reactive: Flux URL из очереди -> загрузка (не больше maxInFlight одновременно, тело разбирается
+// порциями по мере прихода на пуле разбора crawlerParseScheduler) -> обработка результата на том же пуле
+// (parseParallelism потоков) -> очередь записи в БД.
+// Потоки не ждут сеть, поэтому сотни запросов в полёте не требуют сотен потоков
+@Component
+public class ReactiveCrawlEngine implements CrawlEngine {
+
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private final PageFetcher pageFetcher;
+    private final PageProcessor pageProcessor;
+    private final ContactWriteBehind writeBehind;
+    private final int maxInFlight;
+    private final int parseParallelism;
+    private final Scheduler parseScheduler;
+
+    public ReactiveCrawlEngine(PageFetcher pageFetcher,
+                               PageProcessor pageProcessor,
+                               ContactWriteBehind writeBehind,
+                               Scheduler crawlerParseScheduler,
+                               CrawlerProperties properties) {
+        this.pageFetcher = pageFetcher;
+        this.pageProcessor = pageProcessor;
+        this.writeBehind = writeBehind;
+        this.maxInFlight = properties.getReactive().getMaxInFlight();
+        this.parseParallelism = properties.getReactive().getParseParallelism();
+        this.parseScheduler = crawlerParseScheduler;
+    }
+
+    @Override
+    public CrawlMode mode() {
+        return CrawlMode.REACTIVE;
+    }
+
+    @Override
+    public void run(CrawlContext context) {
+        // Источник URL: блокирующий опрос frontier на boundedElastic, пока обход не закончится.
+        // Очередь сама решает, к какому хосту уже можно идти
+        Flux<FrontierUrl> urls = Mono.fromCallable(() -> context.nextUrl(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS))
+                .subscribeOn(Schedulers.boundedElastic())
+                .repeat(() -> !context.isStopped() && !context.isDrained());
+
+        urls
+                .flatMap(u -> pageFetcher.fetch(u.url())
+                        .map(page -> new Fetched(u, page, null))
+                        .defaultIfEmpty(new Fetched(u, new FetchedPage(u.url(), null, null, null, false), null))
+                        .onErrorResume(e -> Mono.just(new Fetched(u, null, e))), maxInFlight)
+                .parallel(parseParallelism)
+                .runOn(parseScheduler)
+                .map(f -> new Processed(f.url(), f.error() != null
+                        ? pageProcessor.failed(f.url().url(), f.error(), context)
+                        : pageProcessor.process(f.page(), context)))
+                .sequential()
+                // Постановка в очередь записи может ждать (backpressure) - не на потоках разбора
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(p -> {
+                    PageResult result = p.result();
+                    if (result.contact() != null) {
+                        submit(result.contact());
+                    }
+                    // Сначала ставим новые ссылки, потом отмечаем страницу обработанной
+                    context.offerLinks(p.url(), result);
+                    context.pageDone(result.url());
+                })
+                .blockLast();
+    }
+
+    private void submit(ContactInfo contact) {
+        try {
+            writeBehind.submit(contact);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    private record Fetched(FrontierUrl url, FetchedPage page, Throwable error) {}
+
+    private record Processed(FrontierUrl url, PageResult result) {}
+}
@@ -0,0 +1,183 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.frontier.FrontierUrl;
+import com.pingme.contactcrawler.frontier.Urls;
+import com.pingme.contactcrawler.service.ContactWriteBehind;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Режим virtual: каждая загрузка страницы - отдельный виртуальный поток (Java 21+).
+// Блокирующий код остаётся простым, а ожидание сети почти ничего не стоит.
+// Общее число одновременных загрузок ограничено семафором, загрузки на один хост - счётчиком хоста:
+// URL занятого хоста ждут в его очереди, не занимая общего места.
+// Общий предел один на все параллельные запуски, семафор честный: запуски получают места по очереди
+@Component
+public class VirtualThreadCrawlEngine implements CrawlEngine {
+
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private final PageFetcher pageFetcher;
+    private final PageProcessor pageProcessor;
+    private final ContactWriteBehind writeBehind;
+    private final Semaphore globalPermits;
+    private final int maxPerHost;
+
+    public VirtualThreadCrawlEngine(PageFetcher pageFetcher,
+                                    PageProcessor pageProcessor,
+                                    ContactWriteBehind writeBehind,
+                                    CrawlerProperties properties) {
+        this.pageFetcher = pageFetcher;
+        this.pageProcessor = pageProcessor;
+        this.writeBehind = writeBehind;
+        this.globalPermits = new Semaphore(properties.getVirtual().getMaxConcurrency(), true);
+        this.maxPerHost = properties.getVirtual().getMaxPerHost();
+    }
+
+    @Override
+    public CrawlMode mode() {
+        return CrawlMode.VIRTUAL;
+    }
+
+    @Override
+    public void run(CrawlContext context) {
+        Map<String, HostSlots> hosts = new ConcurrentHashMap<>();
+
+        // close() в конце try дожидается всех запущенных загрузок
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!context.isStopped()) {
+                FrontierUrl next = context.nextUrl(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (next == null) {
+                    if (context.isDrained()) {
+                        break;
+                    }
+                    continue;
+                }
+
+                HostSlots host = hosts.computeIfAbsent(Urls.host(next.url()), h -> new HostSlots());
+                if (!host.start(next, maxPerHost)) {
+                    // Хост занят: URL загрузит поток, который освободит место хоста
+                    continue;
+                }
+
+                try {
+                    globalPermits.acquire();
+                } catch (InterruptedException e) {
+                    context.pageAbandoned();
+                    abandonWaiting(host, context);
+                    throw e;
+                }
+
+                executor.submit(() -> crawlHost(next, host, context));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Загружает url, затем URL, ждущие того же хоста. Общее место (уже взятое для url) отдаётся после
+    // каждой загрузки и берётся заново: оно занято только загрузкой, а параллельные запуски получают
+    // места по очереди
+    private void crawlHost(FrontierUrl first, HostSlots host, CrawlContext context) {
+        FrontierUrl next = first;
+        while (next != null) {
+            boolean processed = false;
+            try {
+                processed = crawlPage(next, context);
+            } finally {
+                globalPermits.release();
+                if (processed) {
+                    context.pageDone(next.url());
+                } else {
+                    context.pageAbandoned();
+                }
+            }
+            if (!processed) {
+                abandonWaiting(host, context);
+                return;
+            }
+
+            next = host.next();
+            if (next != null) {
+                try {
+                    globalPermits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    context.pageAbandoned();
+                    abandonWaiting(host, context);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Остановка приложения: ждущие URL хоста не загружаются (в журнале они остаются в очереди)
+    private static void abandonWaiting(HostSlots host, CrawlContext context) {
+        while (host.next() != null) {
+            context.pageAbandoned();
+        }
+    }
+
+    // false - загрузка прервана остановкой приложения
+    private boolean crawlPage(FrontierUrl next, CrawlContext context) {
+        String url = next.url();
+
+        PageResult result;
+        try {
+            FetchedPage page = pageFetcher.fetch(url).block();
+            result = pageProcessor.process(page, context);
+        } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            result = pageProcessor.failed(url, e, context);
+        }
+
+        if (result.contact() != null) {
+            try {
+                writeBehind.submit(result.contact());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        context.offerLinks(next, result);
+        return true;
+    }
+
+    // Загрузки одного хоста: не больше maxPerHost сразу, остальные URL ждут в очереди хоста, а не в потоках
+    // с занятым общим местом. Доступ под synchronized (this)
+    private static final class HostSlots {
+        private final Queue<FrontierUrl> waiting = new ArrayDeque<>();
+        private int active;
+
+        // true - место есть, url загружать сейчас; false - url поставлен в очередь хоста
+        synchronized boolean start(FrontierUrl url, int maxPerHost) {
+            if (active >= maxPerHost) {
+                waiting.add(url);
+                return false;
+            }
+            active++;
+            return true;
+        }
+
+        // Следующий ждущий URL (место хоста остаётся за вызывающим) или null - место освобождено
+        synchronized FrontierUrl next() {
+            FrontierUrl url = waiting.poll();
+            if (url == null) {
+                active--;
+            }
+            return url;
+        }
+    }
+}
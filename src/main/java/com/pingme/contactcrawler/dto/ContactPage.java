@@ -0,0 +1,10 @@
+package com.pingme.contactcrawler.dto;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+
+import java.util.List;
+
+// Страница контактов для постраничного обхода по курсору.
+// nextCursor - передать в следующий запрос; null - это последняя страница
+public record ContactPage(List<ContactInfo> items, String nextCursor) {
+}
@@ -1,25 +1,43 @@
 package com.pingme.contactcrawler.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
 @Entity
 @Table(
         name = "contact_info",
         indexes = {
                 @Index(name = "idx_contact_info_name", columnList = "name"),
-                @Index(name = "idx_contact_info_website", columnList = "website")
+                @Index(name = "idx_contact_info_website", columnList = "website"),
+                @Index(name = "idx_contact_info_phones", columnList = "phones"),
+                @Index(name = "idx_contact_info_email", columnList = "email"),
+                @Index(name = "ux_contact_info_website_key", columnList = "website_key", unique = true)
         }
 )
 public class ContactInfo {
 
+    // Id из последовательности с шагом 50 (pooled): Hibernate берёт диапазон id одним запросом
+    // и может отправлять INSERT пакетами (JDBC batch). С IDENTITY пакетная вставка отключается
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_info_seq")
+    @SequenceGenerator(name = "contact_info_seq", sequenceName = "contact_info_seq", allocationSize = 50)
     private Long id;
 
     // Название организации
@@ -28,25 +46,118 @@ public class ContactInfo {
     // Сайт (URL)
     private String website;
 
+    // Нормализованный сайт - ключ записи: один сайт = одна строка, повторные обходы её обновляют
+    @Column(name = "website_key", nullable = false)
+    private String websiteKey;
+
     // Телефон
     @Column(length = 1000)
     private String phones;
 
-    // Email (может быть null)
+    // Email (может быть null; несколько адресов - через запятую)
+    @Column(length = 1000)
     private String email;
 
     // Адрес
     private String address;
 
+    // Телефоны по ключу (последние 10 цифр) - для поиска владельца номера по индексу
+    @ElementCollection
+    @CollectionTable(
+            name = "contact_phone",
+            joinColumns = @JoinColumn(name = "contact_id"),
+            indexes = @Index(name = "idx_contact_phone_key", columnList = "phone_key")
+    )
+    @Column(name = "phone_key", length = 20, nullable = false)
+    private Set<String> phoneKeys = new HashSet<>();
+
+    // Email в нижнем регистре - для поиска по адресу
+    @ElementCollection
+    @CollectionTable(
+            name = "contact_email",
+            joinColumns = @JoinColumn(name = "contact_id"),
+            indexes = @Index(name = "idx_contact_email_address", columnList = "email")
+    )
+    @Column(name = "email", nullable = false)
+    private Set<String> emailKeys = new HashSet<>();
+
     public ContactInfo() {
     }
 
     public ContactInfo(String name, String website, String phones, String email, String address) {
         this.name = name;
         this.website = website;
+        this.websiteKey = websiteKey(website);
         this.phones = phones;
         this.email = email;
         this.address = address;
+        updateKeys(this.phoneKeys, phones, ContactInfo::phoneKey);
+        updateKeys(this.emailKeys, email, ContactInfo::emailKey);
+    }
+
+    // "https://www.Site.ru/Contacts/" -> "site.ru/Contacts": без схемы, www., #якоря и "/" в конце.
+    // В нижний регистр - только хост: путь и параметры на сервере бывают чувствительны к регистру
+    public static String websiteKey(String website) {
+        if (website == null) {
+            return null;
+        }
+        String key = website.trim();
+
+        int scheme = key.indexOf("://");
+        if (scheme >= 0) {
+            key = key.substring(scheme + 3);
+        }
+        int hostEnd = 0;
+        while (hostEnd < key.length() && "/?#".indexOf(key.charAt(hostEnd)) < 0) {
+            hostEnd++;
+        }
+        String host = key.substring(0, hostEnd).toLowerCase(Locale.ROOT);
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+        key = host + key.substring(hostEnd);
+
+        int hash = key.indexOf('#');
+        if (hash >= 0) {
+            key = key.substring(0, hash);
+        }
+        while (key.endsWith("/")) {
+            key = key.substring(0, key.length() - 1);
+        }
+        return key;
+    }
+
+    // Один номер в разных форматах ("+7 800 700 8000", "8 (800) 700-80-00") - последние 10 цифр
+    public static String phoneKey(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        String digits = phone.replaceAll("\\D", "");
+        return digits.length() > 10 ? digits.substring(digits.length() - 10) : digits;
+    }
+
+    public static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Ключи пересчитываются из строки "a, b, c"; набор изменяется на месте, чтобы Hibernate видел изменения
+    private static void updateKeys(Set<String> keys, String list, Function<String, String> key) {
+        keys.clear();
+        if (list == null) {
+            return;
+        }
+        for (String item : list.split(",")) {
+            String k = key.apply(item);
+            if (!k.isEmpty()) {
+                keys.add(k);
+            }
+        }
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateWebsiteKey() {
+        websiteKey = websiteKey(website);
     }
 
     public Long getId() {
@@ -61,6 +172,11 @@ public class ContactInfo {
         return website;
     }
 
+    @JsonIgnore
+    public String getWebsiteKey() {
+        return websiteKey;
+    }
+
     public String getPhone() {
         return phones;
     }
@@ -73,6 +189,16 @@ public class ContactInfo {
         return address;
     }
 
+    @JsonIgnore
+    public Set<String> getPhoneKeys() {
+        return phoneKeys;
+    }
+
+    @JsonIgnore
+    public Set<String> getEmailKeys() {
+        return emailKeys;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -83,14 +209,17 @@ public class ContactInfo {
 
     public void setWebsite(String website) {
         this.website = website;
+        this.websiteKey = websiteKey(website);
     }
 
     public void setPhone(String phones) {
         this.phones = phones;
+        updateKeys(this.phoneKeys, phones, ContactInfo::phoneKey);
     }
 
     public void setEmail(String email) {
         this.email = email;
+        updateKeys(this.emailKeys, email, ContactInfo::emailKey);
     }
 
     public void setAddress(String address) {
@@ -0,0 +1,413 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Журнал обхода на диске: позволяет продолжить обход после перезапуска приложения.
+//
+// Каталог журнала содержит:
+//  - journal-<N>.log  - append-only лог, отображённый в память (mmap). Запись в него - это
+//    несколько put в MappedByteBuffer, без системных вызовов, поэтому почти не медленнее очереди в памяти;
+//  - checkpoint.bin   - снимок состояния (фильтр посещённых URL, очередь, счётчик страниц),
+//    после которого логи с номером меньше N больше не нужны.
+//
+// Записи лога: [тип 1 байт][длина 4 байта][данные]. Тип пишется последним, поэтому
+// недописанная запись (нулевой тип) при чтении считается концом лога.
+//  ENQUEUE - URL поставлен в очередь (данные - URL в UTF-8);
+//  DONE    - страница обработана (данные - 64-битный отпечаток URL).
+// Повторное применение записей безопасно, поэтому сбой между checkpoint и удалением лога не страшен.
+public class CrawlJournal implements Closeable {
+
+    private static final byte ENQUEUE = 1;
+    private static final byte DONE = 2;
+
+    private static final int CHECKPOINT_MAGIC = 0x43434A31; // "CCJ1"
+    private static final String CHECKPOINT_FILE = "checkpoint.bin";
+    private static final String LOG_PREFIX = "journal-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private final Path dir;
+    private final int checkpointEvery;
+    private final UrlSeenFilter seenUrls;
+
+    // URL в очереди (ENQUEUE без DONE) в порядке постановки - для снимка и восстановления
+    private final Map<Long, String> pending = new LinkedHashMap<>();
+    private int pagesDone;
+    private long generation;
+    private int sinceCheckpoint;
+    private MappedLog log;
+
+    // Фоновая запись снимка (checkpoint) и её ошибка - выбрасывается при следующем снимке
+    private Thread checkpointWriter;
+    private volatile IOException checkpointFailure;
+
+    private CrawlJournal(Path dir, int checkpointEvery, UrlSeenFilter seenUrls) {
+        this.dir = dir;
+        this.checkpointEvery = checkpointEvery;
+        this.seenUrls = seenUrls;
+    }
+
+    // Новый пустой журнал (старое содержимое каталога удаляется)
+    public static CrawlJournal create(Path dir, int checkpointEvery, UrlSeenFilter seenUrls) {
+        try {
+            deleteRecursively(dir);
+            Files.createDirectories(dir);
+            CrawlJournal journal = new CrawlJournal(dir, checkpointEvery, seenUrls);
+            journal.log = MappedLog.open(journal.logFile(0));
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось создать журнал обхода " + dir, e);
+        }
+    }
+
+    // Открыть существующий журнал: снимок + все логи после него.
+    // newFilter нужен, если снимка ещё нет (обход прервался до первого checkpoint)
+    public static CrawlJournal open(Path dir, int checkpointEvery, Supplier<UrlSeenFilter> newFilter) {
+        try {
+            Path checkpointFile = dir.resolve(CHECKPOINT_FILE);
+            CrawlJournal journal;
+
+            if (Files.exists(checkpointFile)) {
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(checkpointFile)))) {
+                    if (in.readInt() != CHECKPOINT_MAGIC) {
+                        throw new IOException("Неизвестный формат " + checkpointFile);
+                    }
+                    long generation = in.readLong();
+                    int pagesDone = in.readInt();
+                    journal = new CrawlJournal(dir, checkpointEvery, UrlSeenFilter.readFrom(in));
+                    journal.generation = generation;
+                    journal.pagesDone = pagesDone;
+
+                    int pendingCount = in.readInt();
+                    for (int i = 0; i < pendingCount; i++) {
+                        String url = in.readUTF();
+                        journal.pending.put(UrlFingerprint.of(url), url);
+                    }
+                }
+            } else {
+                journal = new CrawlJournal(dir, checkpointEvery, newFilter.get());
+            }
+
+            for (long gen : logGenerations(dir)) {
+                if (gen < journal.generation) {
+                    continue;
+                }
+                try (MappedLog old = MappedLog.open(journal.logFile(gen))) {
+                    old.replay(journal::apply);
+                }
+                journal.generation = gen;
+            }
+
+            journal.log = MappedLog.open(journal.logFile(journal.generation));
+            return journal;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать журнал обхода " + dir, e);
+        }
+    }
+
+    // Есть ли в каталоге журнал, который можно продолжить
+    public static boolean exists(Path dir) {
+        return Files.exists(dir.resolve(CHECKPOINT_FILE)) || !logGenerations(dir).isEmpty();
+    }
+
+    public UrlSeenFilter getSeenUrls() {
+        return seenUrls;
+    }
+
+    public synchronized List<String> getPendingUrls() {
+        return new ArrayList<>(pending.values());
+    }
+
+    public synchronized int getPagesDone() {
+        return pagesDone;
+    }
+
+    public synchronized void enqueued(String url) {
+        byte[] payload = url.getBytes(StandardCharsets.UTF_8);
+        log.append(ENQUEUE, payload);
+        pending.put(UrlFingerprint.of(url), url);
+        afterAppend();
+    }
+
+    public synchronized void completed(String url) {
+        long fingerprint = UrlFingerprint.of(url);
+        log.append(DONE, ByteBuffer.allocate(Long.BYTES).putLong(fingerprint).array());
+        if (pending.remove(fingerprint) != null) {
+            pagesDone++;
+        }
+        afterAppend();
+    }
+
+    // Снимок состояния. Здесь, на потоке обхода, - только переход на новый лог и копия очереди;
+    // checkpoint.bin пишется в фоне (фильтр посещённых URL - это мегабайты), затем удаляются старые логи.
+    // Пока прошлый снимок пишется, новый не начинается: записи просто копятся в логе
+    public synchronized void checkpoint() {
+        if (checkpointWriter != null && checkpointWriter.isAlive()) {
+            return;
+        }
+        IOException failure = checkpointFailure;
+        if (failure != null) {
+            checkpointFailure = null;
+            throw new UncheckedIOException("Не удалось записать checkpoint журнала " + dir, failure);
+        }
+        try {
+            long nextGeneration = generation + 1;
+            MappedLog nextLog = MappedLog.open(logFile(nextGeneration));
+            MappedLog oldLog = log;
+            log = nextLog;
+            generation = nextGeneration;
+            sinceCheckpoint = 0;
+
+            int done = pagesDone;
+            List<String> urls = new ArrayList<>(pending.values());
+            checkpointWriter = Thread.ofPlatform().name("crawl-journal-checkpoint").daemon().start(() -> {
+                try {
+                    writeCheckpoint(nextGeneration, done, urls, oldLog);
+                } catch (IOException e) {
+                    checkpointFailure = e;
+                } catch (UncheckedIOException e) {
+                    checkpointFailure = e.getCause();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать checkpoint журнала " + dir, e);
+        }
+    }
+
+    // Фильтр копируется уже здесь: он только пополняется, а всё добавленное после перехода на новый лог
+    // есть и в этом логе, так что лишние биты в снимке ничего не меняют при восстановлении.
+    // checkpoint.bin.tmp и каталог сбрасываются на диск до замены и до удаления старых логов:
+    // иначе после сбоя ОС может не оказаться ни целого снимка, ни логов
+    private void writeCheckpoint(long nextGeneration, int done, List<String> urls, MappedLog oldLog)
+            throws IOException {
+        UrlSeenFilter seen = seenUrls.copy();
+        Path tmp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeLong(nextGeneration);
+            out.writeInt(done);
+            seen.writeTo(out);
+            out.writeInt(urls.size());
+            for (String url : urls) {
+                out.writeUTF(url);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, dir.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(dir);
+
+        oldLog.close();
+        for (long gen : logGenerations(dir)) {
+            if (gen < nextGeneration) {
+                Files.deleteIfExists(logFile(gen));
+            }
+        }
+    }
+
+    // Запись о переименовании и новых файлах - в самом каталоге (не везде поддерживается, например в Windows)
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // ФС без fsync каталогов: замена всё равно атомарна
+        }
+    }
+
+    // Дождаться снимка, который пишется в фоне
+    private void awaitCheckpoint() {
+        Thread writer = checkpointWriter;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        awaitCheckpoint();
+        if (log != null) {
+            log.force();
+            log.close();
+            log = null;
+        }
+    }
+
+    // Обход завершён - журнал больше не нужен
+    public synchronized void delete() {
+        close();
+        try {
+            deleteRecursively(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось удалить журнал обхода " + dir, e);
+        }
+    }
+
+    private void afterAppend() {
+        if (++sinceCheckpoint >= checkpointEvery) {
+            checkpoint();
+        }
+    }
+
+    private void apply(byte type, ByteBuffer payload) {
+        if (type == ENQUEUE) {
+            String url = StandardCharsets.UTF_8.decode(payload).toString();
+            seenUrls.add(url);
+            pending.put(UrlFingerprint.of(url), url);
+        } else if (type == DONE) {
+            if (pending.remove(payload.getLong()) != null) {
+                pagesDone++;
+            }
+        }
+    }
+
+    private Path logFile(long gen) {
+        return dir.resolve(LOG_PREFIX + gen + LOG_SUFFIX);
+    }
+
+    private static List<Long> logGenerations(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .map(f -> f.getFileName().toString())
+                    .filter(name -> name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    // Лог, отображённый в память. Растёт удвоением отображённой области
+    private static final class MappedLog implements Closeable {
+
+        private static final int INITIAL_SIZE = 4 * 1024 * 1024;
+        private static final int HEADER = 1 + Integer.BYTES;
+
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private int position;
+
+        private MappedLog(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static MappedLog open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), INITIAL_SIZE);
+            MappedLog log = new MappedLog(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            log.position = log.replay((type, payload) -> { });
+            return log;
+        }
+
+        void append(byte type, byte[] payload) {
+            ensureCapacity(HEADER + payload.length);
+            buffer.putInt(position + 1, payload.length);
+            buffer.put(position + HEADER, payload);
+            // Тип - последним: до этого момента запись при чтении не видна
+            buffer.put(position, type);
+            position += HEADER + payload.length;
+        }
+
+        // Читает записи с начала; возвращает позицию конца лога
+        int replay(RecordHandler handler) {
+            int pos = 0;
+            int limit = buffer.capacity();
+            while (pos + HEADER <= limit) {
+                byte type = buffer.get(pos);
+                if (type == 0) {
+                    break;
+                }
+                int length = buffer.getInt(pos + 1);
+                if (length < 0 || pos + HEADER + length > limit) {
+                    break;
+                }
+                handler.accept(type, buffer.slice(pos + HEADER, length));
+                pos += HEADER + length;
+            }
+            return pos;
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (position + bytes <= buffer.capacity()) {
+                return;
+            }
+            long size = buffer.capacity();
+            while (size < position + bytes) {
+                size *= 2;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Лог журнала обхода превысил 2 ГБ - уменьшите checkpoint-every");
+            }
+            try {
+                buffer.force();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordHandler {
+        void accept(byte type, ByteBuffer payload);
+    }
+}
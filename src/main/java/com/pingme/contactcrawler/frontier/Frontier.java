@@ -0,0 +1,40 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.util.concurrent.TimeUnit;
+
+// Очередь URL на обход (frontier)
+public interface Frontier {
+
+    void offer(String url);
+
+    // priority - чем больше, тем раньше URL будет выдан (LinkScorer); без приоритета - по порядку добавления
+    default void offer(String url, int priority) {
+        offer(url);
+    }
+
+    // depth - глубина URL от стартовых, возвращается из poll() вместе с ним
+    default void offer(String url, int priority, int depth) {
+        offer(url, priority);
+    }
+
+    // Следующий URL, который можно загружать прямо сейчас. Ждёт не дольше timeout;
+    // null - если за это время ни один URL не стал доступен
+    FrontierUrl poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    // URL обходит этот узел (в кластере - хост закреплён за ним). Чужие URL передаются владельцу,
+    // в фильтре посещённых URL этого узла они не учитываются
+    default boolean isLocal(String url) {
+        return true;
+    }
+
+    // Страница, выданная poll(), полностью обработана (её ссылки уже поставлены в очередь)
+    default void completed(String url) {
+    }
+
+    boolean isEmpty();
+
+    // Сколько URL выдано poll() за всё время: по нему видно, что выданный URL ещё не дошёл до воркера
+    long polled();
+
+    int size();
+}
@@ -0,0 +1,5 @@
+package com.pingme.contactcrawler.frontier;
+
+// URL, выданный очередью, вместе с глубиной, с которой он был поставлен (0 - стартовые).
+// Глубина живёт в элементе очереди, а не в отдельной таблице по URL
+public record FrontierUrl(String url, int depth) {}
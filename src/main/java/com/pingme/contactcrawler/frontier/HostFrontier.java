@@ -0,0 +1,179 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Frontier с вежливостью к хостам: у каждого хоста своя очередь URL и свой token bucket,
+// а хосты с непустой очередью лежат в куче по времени, когда к ним снова можно обратиться.
+// poll() всегда отдаёт URL того хоста, к которому уже можно идти, поэтому воркеры не простаивают
+// на одном "горячем" домене, а каждый хост получает не больше заданного числа запросов в секунду.
+// Очередь best-first: из доступных хостов выбирается тот, чей лучший URL приоритетнее,
+// внутри хоста URL выдаются по убыванию приоритета, при равном - по порядку добавления
+public class HostFrontier implements Frontier {
+
+    private static final Comparator<Entry> BEST_FIRST =
+            Comparator.comparingInt(Entry::priority).reversed().thenComparingLong(Entry::seq);
+
+    private final double permitsPerSecond;
+    private final int burst;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    // Хосты, которые ждут токена, - по времени, когда к ним снова можно обратиться
+    private final Queue<HostQueue> waitingHosts =
+            new PriorityQueue<>(Comparator.comparingLong(h -> h.nextAllowedNanos));
+    // Хосты, к которым уже можно идти, - по приоритету их лучшего URL
+    private final Queue<HostQueue> readyHosts =
+            new PriorityQueue<>((a, b) -> BEST_FIRST.compare(a.urls.peek(), b.urls.peek()));
+    private long seq;
+    private int size;
+    private long polled;
+
+    public HostFrontier(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    HostFrontier(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public void offer(String url) {
+        offer(url, 0);
+    }
+
+    @Override
+    public void offer(String url, int priority) {
+        offer(url, priority, 0);
+    }
+
+    @Override
+    public void offer(String url, int priority, int depth) {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            HostQueue host = hosts.computeIfAbsent(Urls.host(url),
+                    h -> new HostQueue(new TokenBucket(permitsPerSecond, burst, now)));
+            Entry entry = new Entry(new FrontierUrl(url, depth), priority, seq++);
+            size++;
+
+            if (host.ready && BEST_FIRST.compare(entry, host.urls.peek()) < 0) {
+                // Лучший URL хоста сменился: хост переставляется в куче доступных
+                readyHosts.remove(host);
+                host.urls.add(entry);
+                readyHosts.add(host);
+            } else {
+                host.urls.add(entry);
+            }
+
+            if (!host.scheduled) {
+                schedule(host, now);
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public FrontierUrl poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                long now = nanoClock.getAsLong();
+                while (!waitingHosts.isEmpty() && waitingHosts.peek().nextAllowedNanos <= now) {
+                    HostQueue host = waitingHosts.poll();
+                    host.ready = true;
+                    readyHosts.add(host);
+                }
+
+                HostQueue host = readyHosts.poll();
+                if (host != null) {
+                    host.ready = false;
+                    host.scheduled = false;
+                    host.bucket.consume(now);
+
+                    FrontierUrl url = host.urls.poll().url;
+                    size--;
+                    polled++;
+
+                    if (!host.urls.isEmpty()) {
+                        schedule(host, now);
+                    }
+                    return url;
+                }
+
+                if (remaining <= 0) {
+                    return null;
+                }
+
+                // Ждём либо нового URL, либо момента, когда ближайший хост станет доступен
+                HostQueue next = waitingHosts.peek();
+                long wait = next == null ? remaining : Math.min(remaining, next.nextAllowedNanos - now);
+                long left = changed.awaitNanos(wait);
+                remaining -= wait - left;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long polled() {
+        lock.lock();
+        try {
+            return polled;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void schedule(HostQueue host, long now) {
+        host.nextAllowedNanos = now + host.bucket.nanosUntilAvailable(now);
+        host.scheduled = true;
+        waitingHosts.add(host);
+    }
+
+    private record Entry(FrontierUrl url, int priority, long seq) {}
+
+    private static final class HostQueue {
+        private final Queue<Entry> urls = new PriorityQueue<>(BEST_FIRST);
+        private final TokenBucket bucket;
+        private long nextAllowedNanos;
+        // scheduled - хост в одной из куч (waitingHosts или readyHosts), ready - в readyHosts
+        private boolean scheduled;
+        private boolean ready;
+
+        private HostQueue(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.util.concurrent.TimeUnit;
+
+// Frontier, каждое изменение которого пишется в CrawlJournal: после перезапуска
+// очередь и посещённые URL восстанавливаются из журнала
+public class JournaledFrontier implements Frontier {
+
+    private final Frontier delegate;
+    private final CrawlJournal journal;
+
+    public JournaledFrontier(Frontier delegate, CrawlJournal journal) {
+        this.delegate = delegate;
+        this.journal = journal;
+    }
+
+    // Восстановленные из журнала URL возвращаются в очередь без повторной записи в лог.
+    // Приоритет считается заново по адресу (глубины и страницы-источника в журнале нет),
+    // чтобы после перезапуска контактные страницы по-прежнему шли раньше остальных
+    public void restore() {
+        for (String url : journal.getPendingUrls()) {
+            delegate.offer(url, LinkScorer.score(url, 0, 0));
+        }
+    }
+
+    @Override
+    public void offer(String url) {
+        journal.enqueued(url);
+        delegate.offer(url);
+    }
+
+    // Приоритет и глубина в журнал не пишутся: после восстановления приоритет - только по адресу, глубина 0
+    @Override
+    public void offer(String url, int priority) {
+        journal.enqueued(url);
+        delegate.offer(url, priority);
+    }
+
+    @Override
+    public void offer(String url, int priority, int depth) {
+        journal.enqueued(url);
+        delegate.offer(url, priority, depth);
+    }
+
+    @Override
+    public FrontierUrl poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.poll(timeout, unit);
+    }
+
+    @Override
+    public void completed(String url) {
+        delegate.completed(url);
+        journal.completed(url);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long polled() {
+        return delegate.polled();
+    }
+}
@@ -0,0 +1,81 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+// Приоритет URL в очереди (больше - раньше): лимит страниц тратится сначала на страницы,
+// где скорее всего есть контакты. Учитываются слова в адресе, глубина от стартового URL
+// и число ссылок tel:/mailto: на странице, где ссылка найдена
+public final class LinkScorer {
+
+    private static final List<String> CONTACT_WORDS = List.of(
+            "contact", "kontakt", "контакт", "svyaz", "связ", "feedback", "obratnaya");
+
+    private static final List<String> ABOUT_WORDS = List.of(
+            "about", "o-nas", "o_nas", "onas", "о-нас", "o-kompanii", "о-компании", "/company", "kompani",
+            "rekvizit", "реквизит", "office", "ofis", "filial", "address", "adres");
+
+    private static final List<String> LOW_WORDS = List.of(
+            "/news", "novost", "/blog", "/article", "/catalog", "katalog", "/product", "tovar", "/tag",
+            "/search", "/cart", "basket", "/login", "/auth", "page=", "sort=");
+
+    private static final int CONTACT_SCORE = 100;
+    private static final int ABOUT_SCORE = 50;
+    private static final int LOW_SCORE = -30;
+    private static final int DEPTH_PENALTY = 20;
+    private static final int CONTACT_LINK_SCORE = 5;
+    private static final int MAX_CONTACT_LINKS = 10;
+
+    private LinkScorer() {
+    }
+
+    // depth - 0 у стартовых URL; parentContactLinks - ссылки tel:/mailto: на странице-источнике
+    public static int score(String url, int depth, int parentContactLinks) {
+        String path = pathOf(url);
+
+        int score = -DEPTH_PENALTY * depth
+                + CONTACT_LINK_SCORE * Math.min(parentContactLinks, MAX_CONTACT_LINKS);
+        if (containsAny(path, CONTACT_WORDS)) {
+            score += CONTACT_SCORE;
+        } else if (containsAny(path, ABOUT_WORDS)) {
+            score += ABOUT_SCORE;
+        } else if (containsAny(path, LOW_WORDS)) {
+            score += LOW_SCORE;
+        }
+        return score;
+    }
+
+    public static boolean isContactLink(String href) {
+        return href.regionMatches(true, 0, "tel:", 0, 4) || href.regionMatches(true, 0, "mailto:", 0, 7);
+    }
+
+    // Путь и параметры без хоста (в имени хоста слова вроде "company" ничего не говорят о странице),
+    // кириллица из %-кодировки раскодирована
+    private static String pathOf(String url) {
+        int scheme = url.indexOf("://");
+        int slash = url.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+        if (slash < 0) {
+            return "";
+        }
+        String path = url.substring(slash);
+        if (path.indexOf('%') >= 0) {
+            try {
+                path = URLDecoder.decode(path.replace("+", "%2B"), StandardCharsets.UTF_8);
+            } catch (IllegalArgumentException e) {
+                // Некорректная %-последовательность: ищем по исходной строке
+            }
+        }
+        return path.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean containsAny(String path, List<String> words) {
+        for (String word : words) {
+            if (path.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
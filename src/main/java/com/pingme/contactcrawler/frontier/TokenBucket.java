@@ -0,0 +1,40 @@
+package com.pingme.contactcrawler.frontier;
+
+// Token bucket: не больше permitsPerSecond запросов в секунду в среднем и не больше burst подряд.
+// Не потокобезопасен - используется под замком HostFrontier
+class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    // Через сколько наносекунд будет доступен один токен (0 - уже доступен)
+    long nanosUntilAvailable(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / permitsPerNano);
+    }
+
+    void consume(long nowNanos) {
+        refill(nowNanos);
+        tokens -= 1;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * permitsPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.net.IDN;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Приведение URL к каноническому виду перед постановкой в очередь, чтобы один и тот же адрес
+// в разных записях (регистр хоста, порт по умолчанию, "/" в конце, #якорь, utm-метки)
+// считался одной страницей и не расходовал лимит обхода повторно.
+// Заодно разрешает относительные href относительно адреса страницы.
+public class UrlCanonicalizer {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // Имена параметров запроса, которые удаляются. "utm_*" - все параметры с префиксом utm_
+    private final List<String> exactParams = new ArrayList<>();
+    private final List<String> prefixParams = new ArrayList<>();
+
+    public UrlCanonicalizer(List<String> stripParams) {
+        for (String param : stripParams) {
+            String p = param.trim().toLowerCase(Locale.ROOT);
+            if (p.endsWith("*")) {
+                prefixParams.add(p.substring(0, p.length() - 1));
+            } else if (!p.isEmpty()) {
+                exactParams.add(p);
+            }
+        }
+    }
+
+    // Канонический абсолютный http(s) URL или null, если ссылка не ведёт на веб-страницу
+    // (mailto:, tel:, javascript:, битый адрес)
+    public String canonicalize(String url) {
+        return canonicalize(null, url);
+    }
+
+    // href разрешается относительно baseUrl (адреса страницы, где он найден)
+    public String canonicalize(String baseUrl, String href) {
+        if (href == null) {
+            return null;
+        }
+        String raw = href.trim();
+        if (raw.isEmpty()) {
+            return null;
+        }
+
+        try {
+            URI uri = parse(raw);
+            if (!uri.isAbsolute()) {
+                if (baseUrl == null) {
+                    return null;
+                }
+                uri = parse(baseUrl).resolve(uri);
+            }
+            return build(uri);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String build(URI uri) {
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            return null;
+        }
+
+        String host = uri.getHost();
+        if (host == null || host.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(scheme).append("://").append(host.toLowerCase(Locale.ROOT));
+
+        int port = uri.getPort();
+        boolean defaultPort = port == -1
+                || ("http".equals(scheme) && port == 80)
+                || ("https".equals(scheme) && port == 443);
+        if (!defaultPort) {
+            sb.append(':').append(port);
+        }
+
+        sb.append(normalizePath(uri.normalize().getRawPath()));
+
+        String query = stripParams(uri.getRawQuery());
+        if (query != null) {
+            sb.append('?').append(query);
+        }
+        // Фрагмент (#...) отбрасывается: это та же страница
+        return sb.toString();
+    }
+
+    // Пустой путь -> "/", "/contacts/" -> "/contacts", "/../" после normalize() не остаётся
+    private static String normalizePath(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        while (path.startsWith("/..")) {
+            path = path.substring(3);
+        }
+        if (path.isEmpty()) {
+            return "/";
+        }
+        if (path.length() > 1 && path.endsWith("/")) {
+            return path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    private String stripParams(String query) {
+        if (query == null || query.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder(query.length());
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = (eq >= 0 ? pair.substring(0, eq) : pair).toLowerCase(Locale.ROOT);
+            if (isTracking(name)) {
+                continue;
+            }
+            if (!sb.isEmpty()) {
+                sb.append('&');
+            }
+            sb.append(pair);
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+
+    private boolean isTracking(String name) {
+        if (exactParams.contains(name)) {
+            return true;
+        }
+        for (String prefix : prefixParams) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Браузеры прощают пробелы и кириллицу в href, java.net.URI - нет: экранируем их
+    private static URI parse(String raw) throws URISyntaxException {
+        String ascii = toAscii(raw);
+        try {
+            return new URI(ascii);
+        } catch (URISyntaxException e) {
+            return new URI(escape(ascii));
+        }
+    }
+
+    // Кириллический домен (сайт.рф) - в punycode, остальная кириллица - в %-кодировку.
+    // Иначе java.net.URI считает такой адрес "registry-based" и getHost() возвращает null
+    private static String toAscii(String raw) {
+        if (raw.chars().allMatch(c -> c < 0x80)) {
+            return raw;
+        }
+
+        int start;
+        int colon = raw.indexOf(':');
+        if (raw.startsWith("//")) {
+            start = 2;
+        } else if (colon > 0 && raw.startsWith("//", colon + 1) && isScheme(raw, colon)) {
+            start = colon + 3;
+        } else {
+            return escape(raw);
+        }
+
+        int end = start;
+        while (end < raw.length() && "/?#".indexOf(raw.charAt(end)) < 0) {
+            end++;
+        }
+        String authority = raw.substring(start, end);
+        int hostStart = authority.lastIndexOf('@') + 1;
+        int port = authority.indexOf(':', hostStart);
+        int hostEnd = port >= 0 ? port : authority.length();
+
+        return raw.substring(0, start)
+                + escape(authority.substring(0, hostStart))
+                + IDN.toASCII(authority.substring(hostStart, hostEnd), IDN.ALLOW_UNASSIGNED)
+                + authority.substring(hostEnd)
+                + escape(raw.substring(end));
+    }
+
+    private static boolean isScheme(String raw, int colon) {
+        return raw.substring(0, colon).matches("[A-Za-z][A-Za-z0-9+.-]*");
+    }
+
+    private static String escape(String raw) {
+        StringBuilder sb = new StringBuilder(raw.length() + 16);
+        raw.codePoints().forEach(c -> {
+            if (c <= ' ' || c >= 0x7f || "\"<>|\\^`{}".indexOf(c) >= 0) {
+                for (byte b : Character.toString(c).getBytes(StandardCharsets.UTF_8)) {
+                    sb.append('%').append(HEX[(b >> 4) & 0xf]).append(HEX[b & 0xf]);
+                }
+            } else {
+                sb.append((char) c);
+            }
+        });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.pingme.contactcrawler.frontier;
+
+// 64-битный отпечаток URL: вместо строк в памяти краулера хранятся только такие числа
+public final class UrlFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private UrlFingerprint() {
+    }
+
+    // FNV-1a по символам строки + финальное перемешивание из MurmurHash3 (fmix64),
+    // чтобы младшие и старшие 32 бита были одинаково "случайными"
+    public static long of(String url) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < url.length(); i++) {
+            h ^= url.charAt(i);
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,212 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Множество посещённых URL на масштабируемом Bloom-фильтре (scalable Bloom filter).
+// Хранит только биты от 64-битных отпечатков URL, поэтому миллионы URL занимают единицы МБ.
+// Когда текущий слой заполнен, добавляется новый - вдвое больше и со вдвое меньшей долей
+// ложных срабатываний, так что суммарная вероятность остаётся около заданной.
+// Слои не добавляются сверх maxMemoryBytes: дальше растёт только доля ложных срабатываний
+// (ложное срабатывание = новый URL считается уже посещённым и пропускается)
+public class UrlSeenFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final double falsePositiveRate;
+    private final long maxMemoryBytes;
+    private final List<Stage> stages = new ArrayList<>();
+    private long count;
+
+    public UrlSeenFilter(int expectedUrls, double falsePositiveRate, long maxMemoryBytes) {
+        this(falsePositiveRate, maxMemoryBytes);
+        stages.add(new Stage(Math.max(expectedUrls, 64), falsePositiveRate * (1 - TIGHTENING)));
+    }
+
+    private UrlSeenFilter(double falsePositiveRate, long maxMemoryBytes) {
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    // true, если URL раньше не встречался (теперь он отмечен)
+    public synchronized boolean add(String url) {
+        long fingerprint = UrlFingerprint.of(url);
+        for (Stage stage : stages) {
+            if (stage.mightContain(fingerprint)) {
+                return false;
+            }
+        }
+
+        Stage last = stages.get(stages.size() - 1);
+        if (last.count >= last.capacity) {
+            long capacity = last.capacity * GROWTH;
+            double rate = last.falsePositiveRate * TIGHTENING;
+            if (memoryBytes() + Stage.words(capacity, rate) * Long.BYTES <= maxMemoryBytes) {
+                last = new Stage(capacity, rate);
+                stages.add(last);
+            }
+        }
+
+        last.put(fingerprint);
+        count++;
+        return true;
+    }
+
+    public synchronized boolean mightContain(String url) {
+        long fingerprint = UrlFingerprint.of(url);
+        for (Stage stage : stages) {
+            if (stage.mightContain(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized long size() {
+        return count;
+    }
+
+    public synchronized long memoryBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += stage.memoryBytes();
+        }
+        return bytes;
+    }
+
+    // Текущая оценка вероятности ложного срабатывания по фактической заполненности слоёв
+    public synchronized double falsePositiveRate() {
+        double pass = 1;
+        for (Stage stage : stages) {
+            pass *= 1 - stage.currentFalsePositiveRate();
+        }
+        return 1 - pass;
+    }
+
+    public double targetFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    // Независимая копия: её можно сохранять, не блокируя add() других потоков
+    public synchronized UrlSeenFilter copy() {
+        UrlSeenFilter copy = new UrlSeenFilter(falsePositiveRate, maxMemoryBytes);
+        copy.count = count;
+        for (Stage stage : stages) {
+            copy.stages.add(new Stage(stage));
+        }
+        return copy;
+    }
+
+    // Сохранение/восстановление фильтра целиком (для checkpoint журнала обхода)
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeDouble(falsePositiveRate);
+        out.writeLong(maxMemoryBytes);
+        out.writeLong(count);
+        out.writeInt(stages.size());
+        for (Stage stage : stages) {
+            out.writeLong(stage.capacity);
+            out.writeDouble(stage.falsePositiveRate);
+            out.writeLong(stage.count);
+            out.writeLong(stage.bitsSet);
+            out.writeInt(stage.bits.length);
+            for (long word : stage.bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    public static UrlSeenFilter readFrom(DataInput in) throws IOException {
+        UrlSeenFilter filter = new UrlSeenFilter(in.readDouble(), in.readLong());
+        filter.count = in.readLong();
+        int stageCount = in.readInt();
+        for (int i = 0; i < stageCount; i++) {
+            Stage stage = new Stage(in.readLong(), in.readDouble());
+            stage.count = in.readLong();
+            stage.bitsSet = in.readLong();
+            int words = in.readInt();
+            if (words != stage.bits.length) {
+                throw new IOException("Повреждённый слой фильтра: " + words + " слов вместо " + stage.bits.length);
+            }
+            for (int w = 0; w < words; w++) {
+                stage.bits[w] = in.readLong();
+            }
+            filter.stages.add(stage);
+        }
+        return filter;
+    }
+
+    private static final class Stage {
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashes;
+        private final long capacity;
+        private final double falsePositiveRate;
+        private long count;
+        private long bitsSet;
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.bits = new long[words(capacity, falsePositiveRate)];
+            this.bitCount = (long) bits.length << 6;
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        private Stage(Stage other) {
+            this.bits = other.bits.clone();
+            this.bitCount = other.bitCount;
+            this.hashes = other.hashes;
+            this.capacity = other.capacity;
+            this.falsePositiveRate = other.falsePositiveRate;
+            this.count = other.count;
+            this.bitsSet = other.bitsSet;
+        }
+
+        // Размер слоя в 64-битных словах: m = -n * ln(p) / ln(2)^2 бит
+        private static int words(long capacity, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (ln2 * ln2));
+            return (int) Math.max(1, (m + 63) >>> 6);
+        }
+
+        // Двойное хеширование (Kirsch-Mitzenmacher): k индексов из двух половин отпечатка
+        private boolean mightContain(long fingerprint) {
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void put(long fingerprint) {
+            int h1 = (int) fingerprint;
+            int h2 = (int) (fingerprint >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                if ((bits[word] & mask) == 0) {
+                    bits[word] |= mask;
+                    bitsSet++;
+                }
+            }
+            count++;
+        }
+
+        private long memoryBytes() {
+            return (long) bits.length * Long.BYTES;
+        }
+
+        private double currentFalsePositiveRate() {
+            return Math.pow((double) bitsSet / bitCount, hashes);
+        }
+    }
+}
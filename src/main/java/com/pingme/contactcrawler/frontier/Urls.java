@@ -0,0 +1,21 @@
+package com.pingme.contactcrawler.frontier;
+
+import java.net.URI;
+import java.util.Locale;
+
+// Мелкие помощники для работы с URL в краулере
+public final class Urls {
+
+    private Urls() {
+    }
+
+    // Хост URL в нижнем регистре; для некорректного URL - сама строка (чтобы не терять её из учёта)
+    public static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,520 @@
+package com.pingme.contactcrawler.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Однопроходный извлекатель контактов из HTML.
+// Идёт по странице один раз: пропускает теги, на лету декодирует сущности (&nbsp;, &#64; ...),
+// из текста набирает короткие "кандидаты" в email/телефон и только к ним применяет регулярки.
+// Ссылки берутся из атрибутов href как есть (в том числе относительные) - разрешает их UrlCanonicalizer.
+// Копий "очищенного" текста страницы не строится.
+// Экземпляр хранит состояние разбора, поэтому один объект = одна страница (не потокобезопасен).
+//
+// Байтовый режим (feed(ByteBuffer)) - для ASCII-совместимых кодировок (UTF-8, windows-1251, KOI8-R ...):
+// все искомые шаблоны (email, цифры телефона, разметка) - ASCII, поэтому страница в строку не декодируется.
+// Байт >= 0x80 превращается в "сырой" символ RAW_BASE + байт: он лишь разрывает кандидатов, как буква текста,
+// а в значении href копится как есть и декодируется в кодировку страницы только для найденной ссылки.
+public class ContactExtractor {
+
+    // Сырые байты >= 0x80 в байтовом режиме: U+F780..U+F7FF (область частного использования)
+    private static final char RAW_BASE = '\uF700';
+
+    private static final Pattern PHONE_PATTERN =
+            Pattern.compile("(?:\\+7|8)?\\s*\\(?\\d{3}\\)?[\\s-]?\\d{3}[\\s-]?\\d{2}[\\s-]?\\d{2}");
+
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("[\\w.%+-]+@[\\w.-]+\\.[A-Za-z]{2,6}");
+
+    // Ограничения на буферы, чтобы мусорная страница не раздувала память
+    private static final int MAX_EMAIL_TOKEN = 254;
+    private static final int MAX_PHONE_RUN = 64;
+    private static final int PHONE_RUN_OVERLAP = 24;
+    private static final int MAX_ENTITY = 10;
+    private static final int MAX_ATTR_NAME = 16;
+    private static final int MAX_ATTR_VALUE = 2048;
+
+    private enum State {
+        TEXT, ENTITY,
+        TAG_OPEN, TAG_NAME, MARKUP_DECL, COMMENT_START, COMMENT, BOGUS,
+        ATTRS, ATTR_NAME, AFTER_ATTR_NAME, BEFORE_ATTR_VALUE, ATTR_VALUE_QUOTED, ATTR_VALUE_UNQUOTED
+    }
+
+    private final ContactSink sink;
+
+    // Кодировка байтового режима (null - разбор символов)
+    private final Charset charset;
+    private final boolean utf8;
+    // Байт неразрывного пробела в однобайтовой кодировке (-1 - нет); в UTF-8 это пара C2 A0
+    private final int nbspByte;
+    private boolean pendingC2;
+
+    private State state = State.TEXT;
+
+    private final StringBuilder emailToken = new StringBuilder(64);
+    private boolean emailTokenHasAt;
+
+    private final StringBuilder phoneRun = new StringBuilder(MAX_PHONE_RUN);
+    private int phoneRunDigits;
+
+    private final StringBuilder entity = new StringBuilder(MAX_ENTITY);
+
+    private final StringBuilder attrName = new StringBuilder(MAX_ATTR_NAME);
+    private final StringBuilder attrValue = new StringBuilder(128);
+    private boolean captureValue;
+    private char quote;
+    private int commentDashes;
+
+    public ContactExtractor(ContactSink sink) {
+        this(sink, null);
+    }
+
+    // charset != null - байтовый режим, кодировка должна проходить проверку supportsBytes
+    public ContactExtractor(ContactSink sink, Charset charset) {
+        this.sink = sink;
+        this.charset = charset;
+        this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        this.nbspByte = charset == null || utf8 ? -1 : nbspByte(charset);
+    }
+
+    // Подходит ли кодировка для байтового режима: UTF-8 или однобайтовая, где байты 0x00..0x7F - это ASCII
+    public static boolean supportsBytes(Charset charset) {
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) {
+            return false;
+        }
+        byte[] ascii = new byte[0x80];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        String decoded = new String(ascii, charset);
+        for (int i = 0; i < ascii.length; i++) {
+            if (decoded.charAt(i) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nbspByte(Charset charset) {
+        byte[] nbsp = "\u00A0".getBytes(charset);
+        return nbsp.length == 1 && (nbsp[0] & 0xFF) >= 0x80 ? nbsp[0] & 0xFF : -1;
+    }
+
+    // Разобрать страницу целиком
+    public static void extract(CharSequence html, ContactSink sink) {
+        ContactExtractor extractor = new ContactExtractor(sink);
+        extractor.feed(html, 0, html.length());
+        extractor.finish();
+    }
+
+    public void feed(CharSequence chunk, int start, int end) {
+        for (int i = start; i < end; i++) {
+            feed(chunk.charAt(i));
+        }
+    }
+
+    // Порция байт страницы (байтовый режим)
+    public void feed(ByteBuffer bytes) {
+        while (bytes.hasRemaining()) {
+            int b = bytes.get() & 0xFF;
+            if (pendingC2) {
+                pendingC2 = false;
+                if (b == 0xA0) {
+                    feed('\u00A0');
+                    continue;
+                }
+                feed(raw(0xC2));
+            }
+
+            if (b < 0x80) {
+                feed((char) b);
+            } else if (utf8 && b == 0xC2) {
+                // Возможно, начало неразрывного пробела C2 A0 - решим на следующем байте
+                pendingC2 = true;
+            } else {
+                feed(b == nbspByte ? '\u00A0' : raw(b));
+            }
+        }
+    }
+
+    private static char raw(int b) {
+        return (char) (RAW_BASE + b);
+    }
+
+    public void feed(char c) {
+        switch (state) {
+            case TEXT -> onText(c);
+            case ENTITY -> onEntity(c);
+            case TAG_OPEN -> onTagOpen(c);
+            case TAG_NAME -> onTagName(c);
+            case MARKUP_DECL -> {
+                if (c == '-') {
+                    state = State.COMMENT_START;
+                } else {
+                    state = c == '>' ? State.TEXT : State.BOGUS;
+                }
+            }
+            case COMMENT_START -> {
+                if (c == '-') {
+                    commentDashes = 0;
+                    state = State.COMMENT;
+                } else {
+                    state = c == '>' ? State.TEXT : State.BOGUS;
+                }
+            }
+            case COMMENT -> {
+                if (c == '>' && commentDashes >= 2) {
+                    state = State.TEXT;
+                }
+                commentDashes = c == '-' ? commentDashes + 1 : 0;
+            }
+            case BOGUS -> {
+                if (c == '>') {
+                    state = State.TEXT;
+                }
+            }
+            case ATTRS -> onAttrs(c);
+            case ATTR_NAME -> onAttrName(c);
+            case AFTER_ATTR_NAME -> {
+                if (c == '=') {
+                    state = State.BEFORE_ATTR_VALUE;
+                } else if (!isSpace(c)) {
+                    onAttrs(c);
+                }
+            }
+            case BEFORE_ATTR_VALUE -> onBeforeAttrValue(c);
+            case ATTR_VALUE_QUOTED -> {
+                if (c == quote) {
+                    endAttrValue();
+                    state = State.ATTRS;
+                } else {
+                    appendAttrValue(c);
+                }
+            }
+            case ATTR_VALUE_UNQUOTED -> {
+                if (isSpace(c) || c == '>') {
+                    endAttrValue();
+                    state = c == '>' ? State.TEXT : State.ATTRS;
+                } else {
+                    appendAttrValue(c);
+                }
+            }
+        }
+    }
+
+    // Конец страницы: дожимаем незавершённые кандидаты
+    public void finish() {
+        if (pendingC2) {
+            pendingC2 = false;
+            feed(raw(0xC2));
+        }
+        if (state == State.ENTITY) {
+            flushRawEntity();
+        }
+        state = State.TEXT;
+        flushEmail();
+        flushPhone();
+    }
+
+    private void onText(char c) {
+        if (c == '<') {
+            state = State.TAG_OPEN;
+        } else if (c == '&') {
+            entity.setLength(0);
+            state = State.ENTITY;
+        } else {
+            textChar(c);
+        }
+    }
+
+    private void onTagOpen(char c) {
+        if (isLetter(c) || c == '/') {
+            // Тег заменяется пробелом, как раньше делал replaceAll("<[^>]*>", " ")
+            textChar(' ');
+            state = State.TAG_NAME;
+        } else if (c == '!') {
+            textChar(' ');
+            state = State.MARKUP_DECL;
+        } else if (c == '?') {
+            textChar(' ');
+            state = State.BOGUS;
+        } else {
+            // Одиночный '<' в тексте (например "a < b")
+            state = State.TEXT;
+            textChar('<');
+            onText(c);
+        }
+    }
+
+    private void onTagName(char c) {
+        if (c == '>') {
+            state = State.TEXT;
+        } else if (isSpace(c) || c == '/') {
+            state = State.ATTRS;
+        }
+    }
+
+    private void onAttrs(char c) {
+        if (c == '>') {
+            state = State.TEXT;
+        } else if (!isSpace(c) && c != '/') {
+            attrName.setLength(0);
+            attrName.append(c);
+            state = State.ATTR_NAME;
+        } else {
+            state = State.ATTRS;
+        }
+    }
+
+    private void onAttrName(char c) {
+        if (c == '=') {
+            state = State.BEFORE_ATTR_VALUE;
+        } else if (c == '>') {
+            state = State.TEXT;
+        } else if (isSpace(c)) {
+            state = State.AFTER_ATTR_NAME;
+        } else if (c == '/') {
+            state = State.ATTRS;
+        } else if (attrName.length() < MAX_ATTR_NAME) {
+            attrName.append(c);
+        }
+    }
+
+    private void onBeforeAttrValue(char c) {
+        if (isSpace(c)) {
+            return;
+        }
+        captureValue = "href".contentEquals(lowerAttrName());
+        attrValue.setLength(0);
+
+        if (c == '"' || c == '\'') {
+            quote = c;
+            state = State.ATTR_VALUE_QUOTED;
+        } else if (c == '>') {
+            state = State.TEXT;
+        } else {
+            appendAttrValue(c);
+            state = State.ATTR_VALUE_UNQUOTED;
+        }
+    }
+
+    private CharSequence lowerAttrName() {
+        for (int i = 0; i < attrName.length(); i++) {
+            attrName.setCharAt(i, Character.toLowerCase(attrName.charAt(i)));
+        }
+        return attrName;
+    }
+
+    private void appendAttrValue(char c) {
+        if (captureValue && attrValue.length() < MAX_ATTR_VALUE) {
+            attrValue.append(c);
+        }
+    }
+
+    private void endAttrValue() {
+        if (!captureValue) {
+            return;
+        }
+        captureValue = false;
+
+        String href = (charset != null ? decodeRaw(attrValue) : attrValue.toString()).trim();
+        if (href.indexOf('&') >= 0) {
+            href = href.replace("&amp;", "&");
+        }
+        if (!href.isEmpty()) {
+            sink.onLink(href);
+        }
+    }
+
+    // Значение атрибута в байтовом режиме: сырые байты собираются обратно и декодируются в кодировку страницы
+    private String decodeRaw(CharSequence value) {
+        boolean hasRaw = false;
+        for (int i = 0; i < value.length() && !hasRaw; i++) {
+            hasRaw = isRaw(value.charAt(i));
+        }
+        if (!hasRaw) {
+            return value.toString();
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isRaw(c)) {
+                bytes.write(c - RAW_BASE);
+            } else {
+                bytes.writeBytes(String.valueOf(c).getBytes(charset));
+            }
+        }
+        return new String(bytes.toByteArray(), charset);
+    }
+
+    private static boolean isRaw(char c) {
+        return c >= RAW_BASE + 0x80 && c <= RAW_BASE + 0xFF;
+    }
+
+    private void onEntity(char c) {
+        if (c == ';') {
+            int decoded = decodeEntity(entity);
+            state = State.TEXT;
+            if (decoded >= 0) {
+                textChar((char) decoded);
+            } else {
+                textChar('&');
+                for (int i = 0; i < entity.length(); i++) {
+                    textChar(entity.charAt(i));
+                }
+                textChar(';');
+            }
+        } else if ((isLetter(c) || isDigit(c) || c == '#') && entity.length() < MAX_ENTITY) {
+            entity.append(c);
+        } else {
+            flushRawEntity();
+            state = State.TEXT;
+            onText(c);
+        }
+    }
+
+    private void flushRawEntity() {
+        textChar('&');
+        for (int i = 0; i < entity.length(); i++) {
+            textChar(entity.charAt(i));
+        }
+    }
+
+    // Декодирование именованных и числовых сущностей; -1 если сущность неизвестна
+    private static int decodeEntity(CharSequence name) {
+        if (name.isEmpty()) {
+            return -1;
+        }
+        if (name.charAt(0) == '#') {
+            try {
+                int code = name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X')
+                        ? Integer.parseInt(name, 2, name.length(), 16)
+                        : Integer.parseInt(name, 1, name.length(), 10);
+                if (code == 160) {
+                    return ' ';
+                }
+                return code <= Character.MAX_VALUE ? code : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return switch (name.toString()) {
+            case "nbsp" -> ' ';
+            case "amp" -> '&';
+            case "lt" -> '<';
+            case "gt" -> '>';
+            case "quot" -> '"';
+            case "apos" -> '\'';
+            case "commat" -> '@';
+            case "period" -> '.';
+            case "plus" -> '+';
+            case "minus", "ndash" -> '-';
+            default -> -1;
+        };
+    }
+
+    // Символ "видимого" текста: отдаём его обоим сканерам кандидатов
+    private void textChar(char c) {
+        if (c == '\u00A0') {
+            c = ' ';
+        }
+        scanEmail(c);
+        scanPhone(c);
+    }
+
+    private void scanEmail(char c) {
+        if (isEmailChar(c)) {
+            if (emailToken.length() < MAX_EMAIL_TOKEN) {
+                emailToken.append(c);
+                if (c == '@') {
+                    emailTokenHasAt = true;
+                }
+            }
+        } else {
+            flushEmail();
+        }
+    }
+
+    private void flushEmail() {
+        if (emailTokenHasAt) {
+            Matcher matcher = EMAIL_PATTERN.matcher(emailToken);
+            while (matcher.find()) {
+                sink.onEmail(matcher.group());
+            }
+        }
+        emailToken.setLength(0);
+        emailTokenHasAt = false;
+    }
+
+    private void scanPhone(char c) {
+        if (isDigit(c)) {
+            phoneRunDigits++;
+        } else if (isSpace(c)) {
+            if (phoneRun.isEmpty()) {
+                return;
+            }
+        } else if (c != '+' && c != '(' && c != ')' && c != '-') {
+            flushPhone();
+            return;
+        }
+
+        if (phoneRun.length() >= MAX_PHONE_RUN) {
+            // Слишком длинная цепочка: разбираем её и оставляем хвост, чтобы не потерять номер на стыке
+            String tail = phoneRun.substring(phoneRun.length() - PHONE_RUN_OVERLAP);
+            flushPhone();
+            phoneRun.append(tail);
+            phoneRunDigits = countDigits(tail);
+        }
+        phoneRun.append(c);
+    }
+
+    private void flushPhone() {
+        if (phoneRunDigits >= 10) {
+            Matcher matcher = PHONE_PATTERN.matcher(phoneRun);
+            while (matcher.find()) {
+                String raw = matcher.group().trim();
+                String digits = raw.replaceAll("\\D+", "");
+
+                if (digits.length() < 10 || digits.length() > 15) {
+                    continue;
+                }
+
+                sink.onPhone(raw, digits.substring(digits.length() - 10));
+            }
+        }
+        phoneRun.setLength(0);
+        phoneRunDigits = 0;
+    }
+
+    private static int countDigits(CharSequence s) {
+        int n = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (isDigit(s.charAt(i))) n++;
+        }
+        return n;
+    }
+
+    private static boolean isEmailChar(char c) {
+        return isLetter(c) || isDigit(c)
+                || c == '_' || c == '.' || c == '%' || c == '+' || c == '-' || c == '@';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+}
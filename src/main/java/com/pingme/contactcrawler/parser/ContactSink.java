@@ -0,0 +1,14 @@
+package com.pingme.contactcrawler.parser;
+
+// Приёмник находок ContactExtractor: вызывается по мере прохода по HTML
+public interface ContactSink {
+
+    // Найден email (в том виде, как он записан на странице)
+    void onEmail(String email);
+
+    // Найден телефон: raw - как записан на странице, key - последние 10 цифр (для дедупликации)
+    void onPhone(String raw, String key);
+
+    // Найдена ссылка из атрибута href (значение как в HTML, может быть относительным)
+    void onLink(String url);
+}
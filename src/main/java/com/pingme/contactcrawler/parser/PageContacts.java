@@ -0,0 +1,47 @@
+package com.pingme.contactcrawler.parser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Результат разбора одной страницы: первый email, уникальные телефоны и ссылки
+public class PageContacts implements ContactSink {
+
+    private String email;
+    private final Map<String, String> phonesByKey = new LinkedHashMap<>();
+    private final List<String> links = new ArrayList<>();
+
+    @Override
+    public void onEmail(String email) {
+        if (this.email == null) {
+            this.email = email;
+        }
+    }
+
+    @Override
+    public void onPhone(String raw, String key) {
+        phonesByKey.putIfAbsent(key, raw);
+    }
+
+    @Override
+    public void onLink(String url) {
+        links.add(url);
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public List<String> getPhones() {
+        return new ArrayList<>(phonesByKey.values());
+    }
+
+    public List<String> getLinks() {
+        return links;
+    }
+
+    public boolean hasContacts() {
+        return email != null || !phonesByKey.isEmpty();
+    }
+}
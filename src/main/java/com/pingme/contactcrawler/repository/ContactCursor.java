@@ -0,0 +1,80 @@
+package com.pingme.contactcrawler.repository;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.Set;
+
+// Позиция в отсортированном списке контактов для keyset-пагинации:
+// поле и направление сортировки + значение поля и id последней выданной строки.
+// Следующая страница - "строки после (lastValue, lastId)", это диапазонное чтение индекса
+// без OFFSET, поэтому любая страница стоит столько же, сколько первая.
+// Клиенту отдаётся непрозрачной строкой (base64url)
+public record ContactCursor(String property, boolean descending, Long lastId, String lastValue) {
+
+    // Поля сущности, по которым можно сортировать (на каждое есть индекс)
+    public static final Set<String> PROPERTIES = Set.of("id", "name", "website", "phones", "email");
+
+    public ContactCursor {
+        if (!PROPERTIES.contains(property)) {
+            throw new IllegalArgumentException("Сортировка по полю " + property + " не поддерживается");
+        }
+    }
+
+    // Начало списка
+    public static ContactCursor start(String property, boolean descending) {
+        return new ContactCursor(property, descending, null, null);
+    }
+
+    public boolean isStart() {
+        return lastId == null;
+    }
+
+    // Позиция сразу после строки last
+    public ContactCursor after(ContactInfo last) {
+        String value = switch (property) {
+            case "name" -> last.getName();
+            case "website" -> last.getWebsite();
+            case "phones" -> last.getPhone();
+            case "email" -> last.getEmail();
+            default -> null;
+        };
+        return new ContactCursor(property, descending, last.getId(), value);
+    }
+
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(property);
+            out.writeBoolean(descending);
+            out.writeLong(lastId);
+            out.writeBoolean(lastValue != null);
+            if (lastValue != null) {
+                out.writeUTF(lastValue);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    // IllegalArgumentException - курсор повреждён или выдан не этим сервисом
+    public static ContactCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            String property = in.readUTF();
+            boolean descending = in.readBoolean();
+            long lastId = in.readLong();
+            String lastValue = in.readBoolean() ? in.readUTF() : null;
+            return new ContactCursor(property, descending, lastId, lastValue);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Некорректный курсор", e);
+        }
+    }
+}
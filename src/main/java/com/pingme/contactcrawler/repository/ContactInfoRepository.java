@@ -1,12 +1,48 @@
 package com.pingme.contactcrawler.repository;
 
 import com.pingme.contactcrawler.entity.ContactInfo;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ContactInfoRepository extends JpaRepository<ContactInfo, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
-    // Поиск по названию или сайту (частичное совпадение, без учета регистра)
-    List<ContactInfo> findByNameContainingIgnoreCaseOrWebsiteContainingIgnoreCase(String name, String website);
+public interface ContactInfoRepository extends JpaRepository<ContactInfo, Long>, ContactInfoRepositoryCustom {
+
+    // Поиск по названию или сайту (частичное совпадение, без учета регистра) полным просмотром таблицы.
+    // Используется, пока не построен поисковый индекс (ContactSearchService)
+    List<ContactInfo> findByNameContainingIgnoreCaseOrWebsiteContainingIgnoreCase(
+            String name, String website, Pageable pageable);
+
+    // Существующие записи по нормализованным сайтам (для слияния результатов обхода)
+    List<ContactInfo> findByWebsiteKeyIn(Collection<String> websiteKeys);
+
+    // Владельцы номера: ключ - последние 10 цифр (ContactInfo.phoneKey), поиск по индексу contact_phone
+    @Query("select distinct c from ContactInfo c join c.phoneKeys p where p = :phoneKey")
+    List<ContactInfo> findByPhoneKey(@Param("phoneKey") String phoneKey);
+
+    // Владельцы адреса: email в нижнем регистре (ContactInfo.emailKey), поиск по индексу contact_email
+    @Query("select distinct c from ContactInfo c join c.emailKeys e where e = :emailKey")
+    List<ContactInfo> findByEmailKey(@Param("emailKey") String emailKey);
+
+    // Только id страницы: сортировка и OFFSET идут по индексу без чтения строк,
+    // сами строки потом читаются по первичному ключу (без count-запроса)
+    @Query("select c.id from ContactInfo c")
+    List<Long> findPageIds(Pageable pageable);
+
+    // Все контакты курсором: строки приходят из БД порциями по fetch size, а не одним списком.
+    // Вызывать внутри транзакции и закрывать Stream
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<ContactInfo> streamAllByOrderByIdAsc();
 }
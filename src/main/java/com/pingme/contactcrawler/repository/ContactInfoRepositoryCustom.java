@@ -0,0 +1,12 @@
+package com.pingme.contactcrawler.repository;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+
+import java.util.List;
+
+// Запросы, которые не выражаются через имена методов Spring Data
+public interface ContactInfoRepositoryCustom {
+
+    // До limit контактов после позиции cursor в порядке сортировки курсора
+    List<ContactInfo> findAfter(ContactCursor cursor, int limit);
+}
@@ -0,0 +1,60 @@
+package com.pingme.contactcrawler.repository;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+// Реализация ContactInfoRepositoryCustom (Spring Data находит её по суффиксу Impl)
+public class ContactInfoRepositoryImpl implements ContactInfoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Порядок строк: (поле, id) в одном направлении; пустые значения поля - в конце при asc
+    // и в начале при desc (DEFAULT_NULL_ORDERING=HIGH), условие "после курсора" это учитывает
+    @Override
+    public List<ContactInfo> findAfter(ContactCursor cursor, int limit) {
+        boolean byId = "id".equals(cursor.property());
+        String field = "c." + cursor.property();
+        String cmp = cursor.descending() ? "<" : ">";
+        String dir = cursor.descending() ? " desc" : " asc";
+
+        StringBuilder jpql = new StringBuilder("select c from ContactInfo c");
+        if (!cursor.isStart()) {
+            jpql.append(" where ");
+            if (byId) {
+                jpql.append("c.id ").append(cmp).append(" :lastId");
+            } else if (cursor.lastValue() == null) {
+                // Курсор внутри группы пустых значений
+                jpql.append("(").append(field).append(" is null and c.id ").append(cmp).append(" :lastId)");
+                if (cursor.descending()) {
+                    jpql.append(" or ").append(field).append(" is not null");
+                }
+            } else {
+                jpql.append("(").append(field).append(' ').append(cmp).append(" :lastValue")
+                        .append(" or (").append(field).append(" = :lastValue and c.id ").append(cmp).append(" :lastId))");
+                if (!cursor.descending()) {
+                    jpql.append(" or ").append(field).append(" is null");
+                }
+            }
+        }
+        jpql.append(" order by ");
+        if (!byId) {
+            jpql.append(field).append(dir).append(", ");
+        }
+        jpql.append("c.id").append(dir);
+
+        TypedQuery<ContactInfo> query = entityManager.createQuery(jpql.toString(), ContactInfo.class)
+                .setMaxResults(limit);
+        if (!cursor.isStart()) {
+            query.setParameter("lastId", cursor.lastId());
+            if (!byId && cursor.lastValue() != null) {
+                query.setParameter("lastValue", cursor.lastValue());
+            }
+        }
+        return query.getResultList();
+    }
+}
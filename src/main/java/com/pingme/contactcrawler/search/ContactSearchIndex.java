@@ -0,0 +1,184 @@
+package com.pingme.contactcrawler.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Триграммный инвертированный индекс по названию и сайту контакта для поиска по подстроке.
+// Текст приводится к нижнему регистру (кириллица тоже, "ё" = "е"), для каждой тройки символов
+// хранится множество id. Запрос из 3+ символов: пересечение списков его триграмм (начиная с самого
+// короткого) и проверка кандидатов на точное вхождение - время зависит от числа совпадений,
+// а не от размера таблицы. Сайт индексируется без схемы ("https://" есть у всех записей, и его
+// триграммы совпадали бы с каждым документом). Запрос короче 3 символов не обслуживается:
+// по нему нечем сузить выборку, а полный перебор документов на каждый запрос - не поиск
+public class ContactSearchIndex {
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    // Разделитель названия и сайта: не встречается в запросе, поэтому триграммы через него не совпадут
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private record Doc(String name, String website, String text) {}
+
+    private record Hit(long id, int rank, int length) {}
+
+    // Добавить или обновить контакт
+    public void put(long id, String name, String website) {
+        String normName = normalize(name);
+        String normWebsite = site(website);
+        Doc doc = new Doc(normName, normWebsite, normName + FIELD_SEPARATOR + normWebsite);
+
+        lock.writeLock().lock();
+        try {
+            Doc old = docs.put(id, doc);
+            if (old != null) {
+                if (old.text().equals(doc.text())) {
+                    return;
+                }
+                for (long trigram : trigrams(old.text())) {
+                    Set<Long> ids = postings.get(trigram);
+                    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                        postings.remove(trigram);
+                    }
+                }
+            }
+            for (long trigram : trigrams(doc.text())) {
+                postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // id лучших совпадений (не больше limit), самые релевантные первыми:
+    // совпадение названия целиком, затем начало названия, начало сайта, начало слова, любое вхождение.
+    // Запрос короче MIN_QUERY_LENGTH - пустой результат
+    public List<Long> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.length() < MIN_QUERY_LENGTH || limit <= 0) {
+            return List.of();
+        }
+
+        // Худший из лучших - в голове очереди, чтобы его можно было вытеснить
+        Comparator<Hit> order = Comparator.comparingInt(Hit::rank)
+                .thenComparingInt(Hit::length)
+                .thenComparingLong(Hit::id);
+        PriorityQueue<Hit> top = new PriorityQueue<>(order.reversed());
+
+        lock.readLock().lock();
+        try {
+            for (long id : candidates(q)) {
+                Doc doc = docs.get(id);
+                int rank = rank(doc, q);
+                if (rank < 0) {
+                    continue;
+                }
+                top.add(new Hit(id, rank, doc.name().length()));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(order);
+        List<Long> ids = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+
+    private List<Long> candidates(String q) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (long trigram : trigrams(q)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> result = new ArrayList<>();
+        outer:
+        for (Long id : lists.get(0)) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    continue outer;
+                }
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    // -1 - подстроки нет (триграммы совпали, но не подряд)
+    private static int rank(Doc doc, String q) {
+        String name = doc.name();
+        if (name.equals(q)) {
+            return 0;
+        }
+        if (name.startsWith(q)) {
+            return 1;
+        }
+        if (host(doc.website()).startsWith(q)) {
+            return 2;
+        }
+        int pos = doc.text().indexOf(q);
+        if (pos < 0) {
+            return -1;
+        }
+        return pos == 0 || !Character.isLetterOrDigit(doc.text().charAt(pos - 1)) ? 3 : 4;
+    }
+
+    // website уже без схемы (site)
+    private static String host(String website) {
+        return website.startsWith("www.") ? website.substring(4) : website;
+    }
+
+    // Сайт в том виде, в котором он индексируется: нижний регистр, хост и путь без "http(s)://"
+    static String site(String website) {
+        String site = normalize(website);
+        int scheme = site.indexOf("://");
+        return scheme >= 0 ? site.substring(scheme + 3) : site;
+    }
+
+    static String normalize(String s) {
+        if (s == null) {
+            return "";
+        }
+        return s.trim().toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return result;
+    }
+}
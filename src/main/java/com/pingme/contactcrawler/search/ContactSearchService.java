@@ -0,0 +1,137 @@
+package com.pingme.contactcrawler.search;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.logging.LoggingService;
+import com.pingme.contactcrawler.repository.ContactInfoRepository;
+import com.pingme.contactcrawler.service.ContactsWrittenEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// Поиск контактов по названию/сайту через ContactSearchIndex и обратный поиск по телефону/email.
+// Индекс заполняется из БД при старте и дополняется после каждой записи ContactInfoWriterService.
+// Пока индекс строится, поиск идёт прежним запросом к БД.
+// Результаты кэшируются (ResultCache); запись краулера сбрасывает только те результаты,
+// в которые попадают записанные контакты
+@Service
+public class ContactSearchService {
+
+    private final ContactInfoRepository repository;
+    private final LoggingService loggingService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ContactSearchIndex index = new ContactSearchIndex();
+
+    private final ResultCache<SearchKey, List<ContactInfo>> searchCache;
+    private final ResultCache<String, List<ContactInfo>> phoneCache;
+    private final ResultCache<String, List<ContactInfo>> emailCache;
+
+    private volatile boolean ready;
+
+    // query - уже нормализован (ContactSearchIndex.normalize)
+    private record SearchKey(String query, int limit) {}
+
+    public ContactSearchService(ContactInfoRepository repository,
+                                LoggingService loggingService,
+                                PlatformTransactionManager transactionManager,
+                                CrawlerProperties properties) {
+        this.repository = repository;
+        this.loggingService = loggingService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        CrawlerProperties.SearchCache cache = properties.getSearchCache();
+        this.searchCache = new ResultCache<>("search", cache.getMaxEntries(), cache.getTtl());
+        this.phoneCache = new ResultCache<>("phone", cache.getMaxEntries(), cache.getTtl());
+        this.emailCache = new ResultCache<>("email", cache.getMaxEntries(), cache.getTtl());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ContactInfo> rows = repository.streamAllByOrderByIdAsc()) {
+                rows.forEach(this::put);
+            }
+        });
+        ready = true;
+        // Результаты, найденные до индекса запросом к БД, ранжированы иначе
+        searchCache.invalidate(key -> true);
+        loggingService.log("INFO: поисковый индекс контактов построен, записей: " + index.size());
+    }
+
+    // Только после коммита: откатившиеся записи в индекс не попадают
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContactsWritten(ContactsWrittenEvent event) {
+        List<ContactsWrittenEvent.Written> contacts = event.contacts();
+        for (ContactsWrittenEvent.Written c : contacts) {
+            index.put(c.id(), c.name(), c.website());
+        }
+
+        searchCache.invalidate(key -> contacts.stream().anyMatch(c -> matches(c, key.query())));
+        phoneCache.invalidate(key -> contacts.stream().anyMatch(c -> c.phoneKeys().contains(key)));
+        emailCache.invalidate(key -> contacts.stream().anyMatch(c -> c.emailKeys().contains(key)));
+    }
+
+    // Контакты, у которых название или сайт содержат query (без учёта регистра), лучшие первыми.
+    // Запрос короче ContactSearchIndex.MIN_QUERY_LENGTH ничего не находит (и не идёт в БД)
+    public List<ContactInfo> search(String query, int limit) {
+        if (ContactSearchIndex.normalize(query).length() < ContactSearchIndex.MIN_QUERY_LENGTH) {
+            return List.of();
+        }
+        return searchCache.get(new SearchKey(ContactSearchIndex.normalize(query), limit),
+                key -> load(query, key.limit()));
+    }
+
+    // phoneKey - ContactInfo.phoneKey
+    public List<ContactInfo> byPhone(String phoneKey) {
+        return phoneCache.get(phoneKey, repository::findByPhoneKey);
+    }
+
+    // emailKey - ContactInfo.emailKey
+    public List<ContactInfo> byEmail(String emailKey) {
+        return emailCache.get(emailKey, repository::findByEmailKey);
+    }
+
+    private List<ContactInfo> load(String query, int limit) {
+        if (!ready) {
+            return repository.findByNameContainingIgnoreCaseOrWebsiteContainingIgnoreCase(
+                    query, query, PageRequest.of(0, limit));
+        }
+
+        List<Long> ids = index.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ContactInfo> byId = new HashMap<>();
+        for (ContactInfo contact : repository.findAllById(ids)) {
+            byId.put(contact.getId(), contact);
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static boolean matches(ContactsWrittenEvent.Written contact, String normalizedQuery) {
+        return ContactSearchIndex.normalize(contact.name()).contains(normalizedQuery)
+                || ContactSearchIndex.site(contact.website()).contains(normalizedQuery);
+    }
+
+    private void put(ContactInfo contact) {
+        if (contact.getId() != null) {
+            index.put(contact.getId(), contact.getName(), contact.getWebsite());
+        }
+    }
+}
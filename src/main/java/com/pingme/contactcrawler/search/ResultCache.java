@@ -0,0 +1,129 @@
+package com.pingme.contactcrawler.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+import static io.micrometer.core.instrument.Metrics.globalRegistry;
+
+// Кэш результатов запросов (read-through): LRU с ограничением числа записей и временем жизни.
+// Записи сбрасываются точечно - invalidate(predicate) удаляет только ключи, на результат которых
+// могла повлиять запись в БД. Метрики: crawler.search.cache.requests{result=hit|miss},
+// crawler.search.cache.evictions{cause=size|ttl|write}, crawler.search.cache.size
+class ResultCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    // accessOrder = true: порядок от давно не использованных к недавним
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Растёт при каждом invalidate: результат, загруженный до сброса, в кэш не кладётся
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictedBySize;
+    private final Counter evictedByTtl;
+    private final Counter evictedByWrite;
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+    ResultCache(String name, int maxEntries, Duration ttl) {
+        this(name, maxEntries, ttl, System::nanoTime);
+    }
+
+    ResultCache(String name, int maxEntries, Duration ttl, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.clock = clock;
+
+        this.hits = requests(name, "hit");
+        this.misses = requests(name, "miss");
+        this.evictedBySize = evictions(name, "size");
+        this.evictedByTtl = evictions(name, "ttl");
+        this.evictedByWrite = evictions(name, "write");
+
+        Gauge.builder("crawler.search.cache.size", this, ResultCache::size)
+                .tag("cache", name)
+                .description("Entries in search result cache")
+                .register(globalRegistry);
+    }
+
+    private static Counter requests(String cache, String result) {
+        return Counter.builder("crawler.search.cache.requests")
+                .tag("cache", cache)
+                .tag("result", result)
+                .description("Search result cache lookups")
+                .register(globalRegistry);
+    }
+
+    private static Counter evictions(String cache, String cause) {
+        return Counter.builder("crawler.search.cache.evictions")
+                .tag("cache", cache)
+                .tag("cause", cause)
+                .description("Entries removed from search result cache")
+                .register(globalRegistry);
+    }
+
+    // Значение из кэша или loader(key); загрузка идёт без блокировки кэша
+    V get(K key, Function<K, V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - clock.getAsLong() > 0) {
+                    hits.increment();
+                    return entry.value();
+                }
+                entries.remove(key);
+                evictedByTtl.increment();
+            }
+            misses.increment();
+            loadGeneration = generation;
+        }
+
+        V value = loader.apply(key);
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+                evictOverflow();
+            }
+        }
+        return value;
+    }
+
+    // Удалить ключи, для которых matches == true
+    synchronized void invalidate(Predicate<K> matches) {
+        generation++;
+        Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            if (matches.test(it.next().getKey())) {
+                it.remove();
+                evictedByWrite.increment();
+            }
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictOverflow() {
+        Iterator<K> it = entries.keySet().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictedBySize.increment();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.repository.ContactInfoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+// Выгрузка всех контактов потоком: строки читаются из БД курсором (fetch size) и сразу пишутся
+// в ответ, в памяти одновременно только небольшая порция. Первый байт уходит клиенту
+// сразу, независимо от размера таблицы
+@Service
+public class ContactExportService {
+
+    // Сколько строк писать между принудительными flush в ответ
+    private static final int FLUSH_EVERY = 1000;
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private final ContactInfoRepository repository;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ContactExportService(ContactInfoRepository repository,
+                                JsonMapper jsonMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.jsonMapper = jsonMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Stream из репозитория живёт только внутри транзакции, поэтому вся запись - в ней
+    public void export(Format format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ContactInfo> rows = repository.streamAllByOrderByIdAsc()) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                if (format == Format.CSV) {
+                    writer.write("id,name,website,phones,email,address\n");
+                }
+
+                int written = 0;
+                Iterator<ContactInfo> it = rows.iterator();
+                while (it.hasNext()) {
+                    ContactInfo contact = it.next();
+                    if (format == Format.CSV) {
+                        writeCsv(writer, contact);
+                    } else {
+                        writer.write(jsonMapper.writeValueAsString(contact));
+                        writer.write('\n');
+                    }
+                    // Выгруженная строка больше не нужна контексту персистентности
+                    entityManager.detach(contact);
+
+                    if (++written % FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ошибка записи выгрузки контактов", e);
+            }
+        });
+    }
+
+    private static void writeCsv(Writer writer, ContactInfo contact) throws IOException {
+        writer.write(String.valueOf(contact.getId()));
+        for (String value : new String[]{
+                contact.getName(), contact.getWebsite(), contact.getPhone(), contact.getEmail(), contact.getAddress()}) {
+            writer.write(',');
+            writer.write(csv(value));
+        }
+        writer.write('\n');
+    }
+
+    // Значение с запятой, кавычкой или переводом строки - в кавычках, кавычки удваиваются
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -2,23 +2,139 @@ package com.pingme.contactcrawler.service;
 
 import com.pingme.contactcrawler.entity.ContactInfo;
 import com.pingme.contactcrawler.repository.ContactInfoRepository;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import static io.micrometer.core.instrument.Metrics.globalRegistry;
 
 @Service
 public class ContactInfoWriterService {
 
+    // Длина колонок phones/email
+    private static final int MAX_LIST_LENGTH = 1000;
+
     private final ContactInfoRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ContactInfoWriterService(ContactInfoRepository repository) {
+    private final Counter inserted = upsertCounter("inserted");
+    private final Counter updated = upsertCounter("updated");
+    private final Counter unchanged = upsertCounter("unchanged");
+
+    public ContactInfoWriterService(ContactInfoRepository repository,
+                                    ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    private static Counter upsertCounter(String result) {
+        return Counter.builder("crawler.db.upsert")
+                .tag("result", result)
+                .description("Contacts written to DB grouped by upsert result")
+                .register(globalRegistry);
     }
 
-    // Транзакция на пакетной записи в БД
+    // Транзакция на пакетной записи в БД: INSERT'ы уходят JDBC-пакетами (hibernate.jdbc.batch_size).
+    // Запись с тем же нормализованным сайтом не дублируется: телефоны и email сливаются в неё,
+    // а если ничего нового не найдено, UPDATE не выполняется вовсе
     @Transactional
     public void saveBatch(List<ContactInfo> batch) {
-        repository.saveAll(batch);
+        Map<String, ContactInfo> incoming = new LinkedHashMap<>();
+        for (ContactInfo contact : batch) {
+            incoming.merge(contact.getWebsiteKey(), contact, (first, next) -> {
+                mergeInto(first, next);
+                return first;
+            });
+        }
+
+        Map<String, ContactInfo> existing = new LinkedHashMap<>();
+        for (ContactInfo contact : repository.findByWebsiteKeyIn(incoming.keySet())) {
+            existing.put(contact.getWebsiteKey(), contact);
+        }
+
+        List<ContactInfo> toInsert = new ArrayList<>();
+        List<ContactInfo> written = new ArrayList<>();
+        for (Map.Entry<String, ContactInfo> entry : incoming.entrySet()) {
+            ContactInfo current = existing.get(entry.getKey());
+            if (current == null) {
+                toInsert.add(entry.getValue());
+                inserted.increment();
+            } else if (mergeInto(current, entry.getValue())) {
+                // Управляемая сущность: UPDATE сделает dirty checking при коммите
+                written.add(current);
+                updated.increment();
+            } else {
+                unchanged.increment();
+            }
+        }
+
+        repository.saveAll(toInsert);
+        written.addAll(toInsert);
+
+        // Поисковый индекс и кэши обновятся после коммита (ContactsWrittenEvent)
+        if (!written.isEmpty()) {
+            eventPublisher.publishEvent(new ContactsWrittenEvent(
+                    written.stream().map(ContactsWrittenEvent.Written::of).toList()));
+        }
+    }
+
+    // Добавляет в target телефоны и email из source; true - если target изменился
+    static boolean mergeInto(ContactInfo target, ContactInfo source) {
+        String phones = mergeList(target.getPhone(), source.getPhone(), ContactInfo::phoneKey);
+        String email = mergeList(target.getEmail(), source.getEmail(), ContactInfo::emailKey);
+
+        boolean changed = false;
+        if (!Objects.equals(phones, target.getPhone())) {
+            target.setPhone(phones);
+            changed = true;
+        }
+        if (!Objects.equals(email, target.getEmail())) {
+            target.setEmail(email);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // Объединение списков "a, b, c" без повторов (по ключу), в порядке появления
+    private static String mergeList(String current, String added, Function<String, String> key) {
+        if (added == null || added.isBlank()) {
+            return current;
+        }
+
+        Map<String, String> items = new LinkedHashMap<>();
+        for (String list : new String[]{current, added}) {
+            if (list == null) {
+                continue;
+            }
+            for (String item : list.split(",")) {
+                String value = item.trim();
+                if (!value.isEmpty()) {
+                    items.putIfAbsent(key.apply(value), value);
+                }
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String value : items.values()) {
+            int length = sb.isEmpty() ? value.length() : sb.length() + 2 + value.length();
+            if (length > MAX_LIST_LENGTH) {
+                break;
+            }
+            if (!sb.isEmpty()) {
+                sb.append(", ");
+            }
+            sb.append(value);
+        }
+        String merged = sb.toString();
+        // Тот же набор в том же виде - возвращаем исходную строку, чтобы не было лишнего UPDATE
+        return merged.equals(current) ? current : merged;
     }
 }
@@ -0,0 +1,169 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.logging.LoggingService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.micrometer.core.instrument.Metrics.globalRegistry;
+
+// Отложенная запись контактов в БД (write-behind).
+// Воркеры всех режимов кладут найденные контакты в общую ограниченную очередь, отдельный поток
+// contact-writer пишет их пакетами: когда набралось batchSize записей или прошло flushInterval.
+// Медленная запись в БД не останавливает загрузку страниц, пока очередь не заполнена;
+// при заполненной очереди submit() ждёт - так воркеры не уходят далеко вперёд записи (backpressure)
+@Service
+public class ContactWriteBehind {
+
+    private final ContactInfoWriterService writerService;
+    private final LoggingService loggingService;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<ContactInfo> queue;
+
+    // Сколько контактов принято и сколько уже обработано писателем (записано или отброшено с ошибкой)
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final Object processedMonitor = new Object();
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private final Timer flushTimer = Timer.builder("crawler.writer.flush")
+            .description("Time spent on writing one batch of contacts to DB")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(globalRegistry);
+
+    private final DistributionSummary batchSizeSummary = DistributionSummary.builder("crawler.writer.batch.size")
+            .description("Number of contacts in one DB batch")
+            .register(globalRegistry);
+
+    private final Timer backpressureTimer = Timer.builder("crawler.writer.backpressure")
+            .description("Time crawler workers waited for free space in the write queue")
+            .register(globalRegistry);
+
+    public ContactWriteBehind(ContactInfoWriterService writerService,
+                              LoggingService loggingService,
+                              CrawlerProperties properties) {
+        this.writerService = writerService;
+        this.loggingService = loggingService;
+        this.batchSize = properties.getBatchSize();
+        this.flushIntervalNanos = properties.getWriter().getFlushInterval().toNanos();
+        this.queue = new ArrayBlockingQueue<>(properties.getWriter().getQueueCapacity());
+        this.writerThread = new Thread(this::writerLoop, "contact-writer");
+
+        Gauge.builder("crawler.writer.queue.depth", queue, BlockingQueue::size)
+                .description("Contacts waiting to be written to DB")
+                .register(globalRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writerThread.start();
+    }
+
+    // Поставить контакт в очередь на запись; ждёт, если очередь заполнена
+    public void submit(ContactInfo contact) throws InterruptedException {
+        submitted.incrementAndGet();
+        if (!queue.offer(contact)) {
+            long start = System.nanoTime();
+            try {
+                queue.put(contact);
+            } catch (InterruptedException e) {
+                submitted.decrementAndGet();
+                throw e;
+            } finally {
+                backpressureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    // Дождаться записи всего, что было поставлено в очередь до вызова
+    public void flush() throws InterruptedException {
+        long target = submitted.get();
+        synchronized (processedMonitor) {
+            while (processed.get() < target && writerThread.isAlive()) {
+                processedMonitor.wait(100);
+            }
+        }
+    }
+
+    private void writerLoop() {
+        List<ContactInfo> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                ContactInfo first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Добираем пакет до batchSize, но ждём не дольше flushInterval от первого контакта
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || left <= 0) {
+                        break;
+                    }
+                    ContactInfo next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Остановка: дописываем то, что уже в очереди
+                running = false;
+                queue.drainTo(batch);
+            }
+
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<ContactInfo> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            writerService.saveBatch(batch);
+        } catch (Exception e) {
+            loggingService.log("ERROR: не удалось записать пакет контактов (" + batch.size() + "): " + e.getMessage());
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizeSummary.record(batch.size());
+        }
+
+        synchronized (processedMonitor) {
+            processed.addAndGet(batch.size());
+            processedMonitor.notifyAll();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Писатель сам выйдет, когда опустошит очередь; прерываем, только если запись зависла
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        if (writerThread.isAlive()) {
+            writerThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+
+import java.util.List;
+import java.util.Set;
+
+// Публикуется ContactInfoWriterService для записей, которые пакет вставил или изменил.
+// Слушатели получают снимки, снятые внутри транзакции: после коммита ленивые коллекции сущности недоступны
+public record ContactsWrittenEvent(List<Written> contacts) {
+
+    public record Written(Long id, String name, String website, Set<String> phoneKeys, Set<String> emailKeys) {
+
+        public static Written of(ContactInfo contact) {
+            return new Written(contact.getId(), contact.getName(), contact.getWebsite(),
+                    Set.copyOf(contact.getPhoneKeys()), Set.copyOf(contact.getEmailKeys()));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.crawler.CrawlEvent;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Фоновое задание обхода: запуск краулера со своим id, прогрессом и возможностью отмены
+public class CrawlJob {
+
+    public enum State { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    // Сколько последних событий по URL отдаётся в статусе; все события - потоком /jobs/{id}/events
+    private static final int RECENT_EVENTS = 20;
+
+    private final String id;
+    private final CrawlerService.Crawl crawl;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile State state = State.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    // URL от других узлов кластера, пришедшие, когда обход на этом узле уже нельзя было продолжить
+    private final AtomicInteger forwardedUrlsDropped = new AtomicInteger();
+
+    CrawlJob(String id, CrawlerService.Crawl crawl) {
+        this.id = id;
+        this.crawl = crawl;
+    }
+
+    // false - задание отменили, пока оно ждало в очереди
+    synchronized boolean start() {
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.RUNNING;
+        startedAt = Instant.now();
+        return true;
+    }
+
+    synchronized void finish(Throwable failure) {
+        if (failure != null) {
+            state = State.FAILED;
+            error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        } else {
+            state = crawl.context().isCancelled() ? State.CANCELLED : State.COMPLETED;
+        }
+        finishedAt = Instant.now();
+    }
+
+    // Воркеры перестают брать новые страницы; начатые загрузки дорабатываются.
+    // true - задание ещё ждало в очереди и сразу завершено
+    synchronized boolean cancel() {
+        crawl.context().cancel();
+        if (state != State.QUEUED) {
+            return false;
+        }
+        state = State.CANCELLED;
+        finishedAt = Instant.now();
+        return true;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    CrawlerService.Crawl getCrawl() {
+        return crawl;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public int getPagesFetched() {
+        return crawl.context().getPagesDone();
+    }
+
+    public int getQueueDepth() {
+        return crawl.context().getQueueSize();
+    }
+
+    public int getContactsFound() {
+        return crawl.context().getContactsFound();
+    }
+
+    void forwardedUrlsDropped(int count) {
+        forwardedUrlsDropped.addAndGet(count);
+    }
+
+    public int getForwardedUrlsDropped() {
+        return forwardedUrlsDropped.get();
+    }
+
+    public List<CrawlEvent> getRecentEvents() {
+        return crawl.context().getLastEvents(RECENT_EVENTS);
+    }
+}
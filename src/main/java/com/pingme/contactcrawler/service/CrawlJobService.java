@@ -0,0 +1,175 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.cluster.ClusterCoordinator;
+import com.pingme.contactcrawler.cluster.UrlBatch;
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.crawler.CrawlEvent;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.logging.LoggingService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Фоновые задания обхода: запрос сразу получает id задания, обход идёт в отдельном потоке,
+// а статус и прогресс можно запрашивать, пока он работает. Одновременно выполняется не больше
+// jobs.max-concurrent заданий, из завершённых хранятся последние jobs.keep-finished
+@Service
+public class CrawlJobService {
+
+    private final CrawlerService crawlerService;
+    private final LoggingService loggingService;
+    private final ClusterCoordinator cluster;
+    private final int keepFinished;
+    private final int eventBuffer;
+    private final ExecutorService executor;
+
+    private final Map<String, CrawlJob> jobs = new ConcurrentHashMap<>();
+    private final Queue<CrawlJob> finished = new ConcurrentLinkedQueue<>();
+
+    public CrawlJobService(CrawlerService crawlerService,
+                           LoggingService loggingService,
+                           ClusterCoordinator cluster,
+                           CrawlerProperties properties) {
+        this.crawlerService = crawlerService;
+        this.loggingService = loggingService;
+        this.cluster = cluster;
+        this.keepFinished = properties.getJobs().getKeepFinished();
+        this.eventBuffer = properties.getJobs().getEventBuffer();
+        this.executor = Executors.newFixedThreadPool(
+                properties.getJobs().getMaxConcurrent(), Thread.ofPlatform().name("crawler-job-", 1).factory());
+        // Пакеты, пришедшие, пока запуск дописывал результаты, - после его окончания
+        cluster.onLateBatch(this::acceptForwarded);
+    }
+
+    public CrawlJob submit(List<String> startUrls) {
+        return submit(UUID.randomUUID().toString(), startUrls);
+    }
+
+    // Ссылки от другого узла кластера: в идущий запуск с тем же id или новым заданием с этим id.
+    // Если запуск здесь недавно окончен - продолжением с его фильтром посещённых URL (заданием с тем же id),
+    // если давно, отменён или упёрся в лимит страниц - пакет отбрасывается и учитывается в статусе задания.
+    // synchronized - чтобы два пакета одного обхода не начали два задания
+    public synchronized void acceptForwarded(UrlBatch batch) {
+        String id = batch.crawlId();
+        switch (cluster.deliver(batch)) {
+            case DELIVERED -> { }
+            case UNKNOWN -> submit(id, batch.urls(), null);
+            case CONTINUE -> {
+                UrlSeenFilter seenUrls = cluster.takeSeenUrls(id);
+                if (seenUrls != null) {
+                    loggingService.log("INFO: обход " + id + " продолжается: " + batch.urls().size()
+                            + " URL от другого узла после окончания на этом узле");
+                    submit(id, batch.urls(), seenUrls);
+                } else {
+                    dropped(batch);
+                }
+            }
+            case DROPPED -> dropped(batch);
+        }
+    }
+
+    private void dropped(UrlBatch batch) {
+        loggingService.log("WARN: обход " + batch.crawlId() + " на этом узле уже окончен, "
+                + batch.urls().size() + " URL от другого узла отброшены");
+        CrawlJob job = jobs.get(batch.crawlId());
+        if (job != null) {
+            job.forwardedUrlsDropped(batch.urls().size());
+        }
+    }
+
+    private CrawlJob submit(String id, List<String> startUrls) {
+        return submit(id, startUrls, null);
+    }
+
+    // seenUrls != null - продолжение оконченного запуска
+    private CrawlJob submit(String id, List<String> startUrls, UrlSeenFilter seenUrls) {
+        CrawlerService.Crawl crawl = seenUrls == null
+                ? crawlerService.prepare(id, startUrls)
+                : crawlerService.prepare(id, startUrls, seenUrls);
+        CrawlJob job = new CrawlJob(id, crawl);
+        jobs.put(job.getId(), job);
+        executor.execute(() -> execute(job));
+        loggingService.log("INFO: задание обхода " + job.getId() + " поставлено в очередь, стартовых URL: "
+                + startUrls.size());
+        return job;
+    }
+
+    public Optional<CrawlJob> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    // Сначала новые
+    public List<CrawlJob> list() {
+        List<CrawlJob> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparing(CrawlJob::getSubmittedAt).reversed());
+        return all;
+    }
+
+    // События задания по мере появления (начиная с последних eventBuffer уже случившихся);
+    // поток завершается, когда завершается задание
+    public Optional<Flux<CrawlEvent>> events(String id) {
+        return get(id).map(job -> job.getCrawl().context().streamEvents(eventBuffer, eventBuffer));
+    }
+
+    public Optional<CrawlJob> cancel(String id) {
+        CrawlJob job = jobs.get(id);
+        if (job != null && !job.isFinished()) {
+            loggingService.log("INFO: задание обхода " + id + " отменено");
+            if (job.cancel()) {
+                retire(job);
+            }
+        }
+        return Optional.ofNullable(job);
+    }
+
+    private void execute(CrawlJob job) {
+        if (!job.start()) {
+            // Отменено в очереди
+            crawlerService.discard(job.getCrawl());
+            return;
+        }
+
+        Throwable failure = null;
+        try {
+            crawlerService.run(job.getCrawl());
+        } catch (RuntimeException e) {
+            failure = e;
+            loggingService.log("ERROR: задание обхода " + job.getId() + " завершилось ошибкой: " + e.getMessage());
+        } finally {
+            job.finish(failure);
+            retire(job);
+        }
+        loggingService.log("INFO: задание обхода " + job.getId() + " - " + job.getState()
+                + ". Обработано страниц: " + job.getPagesFetched() + ", найдено контактов: " + job.getContactsFound());
+    }
+
+    // Завершённые задания хранятся ограниченно: самые старые забываются
+    // Продолжение запуска хранится под тем же id, поэтому удаляется только само забытое задание
+    private void retire(CrawlJob job) {
+        finished.add(job);
+        while (finished.size() > keepFinished) {
+            CrawlJob oldest = finished.poll();
+            if (oldest != null) {
+                jobs.remove(oldest.getId(), oldest);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Прерванные обходы с журналом продолжатся после перезапуска
+        executor.shutdownNow();
+    }
+}
@@ -1,332 +1,210 @@
 package com.pingme.contactcrawler.service;
 
+import com.pingme.contactcrawler.cluster.ClusterCoordinator;
+import com.pingme.contactcrawler.config.CrawlerProperties;
 import com.pingme.contactcrawler.config.DefaultSitesProvider;
-import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.crawler.CrawlContext;
+import com.pingme.contactcrawler.crawler.CrawlEngine;
+import com.pingme.contactcrawler.crawler.CrawlEvent;
+import com.pingme.contactcrawler.crawler.CrawlMode;
+import com.pingme.contactcrawler.crawler.CrawlerMetrics;
+import com.pingme.contactcrawler.frontier.CrawlJournal;
+import com.pingme.contactcrawler.frontier.Frontier;
+import com.pingme.contactcrawler.frontier.HostFrontier;
+import com.pingme.contactcrawler.frontier.JournaledFrontier;
+import com.pingme.contactcrawler.frontier.UrlCanonicalizer;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
 import com.pingme.contactcrawler.logging.LoggingService;
-import com.pingme.contactcrawler.repository.ContactInfoRepository;
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Timer;
-import org.springframework.http.HttpStatusCode;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientRequestException;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
 
-import java.net.ConnectException;
-import java.net.UnknownHostException;
-import java.time.Duration;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Queue;
-import java.util.Set;
-import java.util.concurrent.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static io.micrometer.core.instrument.Metrics.globalRegistry;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Service
 public class CrawlerService {
     private final LoggingService loggingService;
-    private final ContactInfoRepository contactInfoRepository;
-    private final ContactInfoWriterService writerService;
-    private final WebClient webClient;
     private final DefaultSitesProvider defaultSitesProvider;
-
-    private final Timer parseTimer = Timer.builder("crawler.parse")
-            .description("Time spent on parsing HTML (extract email/phones/links)")
-            .publishPercentileHistogram()
-            .publishPercentiles(0.5, 0.95, 0.99)
-            .register(globalRegistry);
-
-    private final Counter parseSuccess = Counter.builder("crawler.parse.success")
-            .description("Number of successful page parses")
-            .register(globalRegistry);
-
-    private final Counter parseError = Counter.builder("crawler.parse.error")
-            .description("Number of failed page parses")
-            .register(globalRegistry);
-
-    private final Counter errHttp4xx = Counter.builder("crawler.parse.error.reason")
-            .tag("reason", "http_4xx")
-            .description("Parse errors grouped by reason")
-            .register(globalRegistry);
-
-    private final Counter errHttp5xx = Counter.builder("crawler.parse.error.reason")
-            .tag("reason", "http_5xx")
-            .description("Parse errors grouped by reason")
-            .register(globalRegistry);
-
-    private final Counter errTimeout = Counter.builder("crawler.parse.error.reason")
-            .tag("reason", "timeout")
-            .description("Parse errors grouped by reason")
-            .register(globalRegistry);
-
-    private final Counter errConnection = Counter.builder("crawler.parse.error.reason")
-            .tag("reason", "connection")
-            .description("Parse errors grouped by reason")
-            .register(globalRegistry);
-
-    private final Counter errEmptyHtml = Counter.builder("crawler.parse.error.reason")
-            .tag("reason", "empty_html")
-            .description("Parse errors grouped by reason")
-            .register(globalRegistry);
-
-    private final Counter errOther = Counter.builder("crawler.parse.error.reason")
-            .tag("reason", "other")
-            .description("Parse errors grouped by reason")
-            .register(globalRegistry);
-
-    private final Counter dbSaved = Counter.builder("crawler.db.saved")
-            .description("Number of ContactInfo records saved to DB")
-            .register(globalRegistry);
-
-    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
-    private final Queue<String> urlQueue = new ConcurrentLinkedQueue<>();
-    private final Set<String> visitedUrls = ConcurrentHashMap.newKeySet();
-
-    private static final Pattern PHONE_PATTERN =
-            Pattern.compile("(?:\\+7|8)?\\s*\\(?\\d{3}\\)?[\\s-]?\\d{3}[\\s-]?\\d{2}[\\s-]?\\d{2}");
-
-    private static final Pattern EMAIL_PATTERN =
-            Pattern.compile("[\\w.%+-]+@[\\w.-]+\\.[A-Za-z]{2,6}");
-
-    private static final int MAX_PAGES = 20;
-
-    private static final Pattern LINK_PATTERN = Pattern.compile(
-            "href=[\"'](https?://[^\"']+)[\"']",
-            Pattern.CASE_INSENSITIVE
-    );
-
-    public CrawlerService(ContactInfoRepository contactInfoRepository,
-                          ContactInfoWriterService writerService,
-                          LoggingService loggingService,
-                          DefaultSitesProvider defaultSitesProvider) {
-        this.contactInfoRepository = contactInfoRepository;
-        this.writerService = writerService;
+    private final CrawlerProperties properties;
+    private final CrawlerMetrics metrics;
+    private final UrlCanonicalizer canonicalizer;
+    private final ContactWriteBehind writeBehind;
+    private final ClusterCoordinator cluster;
+    private final Map<CrawlMode, CrawlEngine> engines = new EnumMap<>(CrawlMode.class);
+
+    public CrawlerService(LoggingService loggingService,
+                          DefaultSitesProvider defaultSitesProvider,
+                          CrawlerProperties properties,
+                          CrawlerMetrics metrics,
+                          UrlCanonicalizer canonicalizer,
+                          ContactWriteBehind writeBehind,
+                          ClusterCoordinator cluster,
+                          List<CrawlEngine> engines) {
         this.loggingService = loggingService;
         this.defaultSitesProvider = defaultSitesProvider;
-        this.webClient = WebClient.create();
+        this.properties = properties;
+        this.metrics = metrics;
+        this.canonicalizer = canonicalizer;
+        this.writeBehind = writeBehind;
+        this.cluster = cluster;
+        for (CrawlEngine engine : engines) {
+            this.engines.put(engine.mode(), engine);
+        }
     }
 
-    // Запуск краулинга со списком стартовых URL
+    // Подготовленный запуск: id (в кластере общий для всех узлов), состояние обхода
+    // и журнал на диске (null, если журнал выключен)
+    public record Crawl(String id, CrawlContext context, CrawlJournal journal) {}
+
+    // Запуск краулинга со списком стартовых URL (синхронно, до конца обхода)
     public List<String> crawl(List<String> startUrls) {
         if (startUrls == null || startUrls.isEmpty()) {
             return List.of("WARN: список стартовых URL пуст, краулер не запущен");
         }
+        return run(prepare(UUID.randomUUID().toString(), startUrls));
+    }
 
-        urlQueue.clear();
-        visitedUrls.clear();
-        urlQueue.addAll(startUrls);
-
-        List<String> statusMessages = new CopyOnWriteArrayList<>();
-        List<Future<?>> futures = new ArrayList<>();
+    // Очередь со стартовыми URL; сам обход запускает run(crawl).
+    // В кластере с этого момента запуск принимает ссылки от других узлов
+    public Crawl prepare(String crawlId, List<String> startUrls) {
+        return prepare(crawlId, startUrls, newSeenFilter());
+    }
 
-        for (int i = 0; i < 4; i++) {
-            futures.add(executorService.submit(() -> workerLoop(statusMessages)));
+    // seenUrls - фильтр посещённых URL (у продолжения оконченного запуска - его фильтр:
+    // уже обойденные страницы не загружаются повторно)
+    public Crawl prepare(String crawlId, List<String> startUrls, UrlSeenFilter seenUrls) {
+        Frontier frontier = newFrontier();
+        CrawlJournal journal = null;
+
+        CrawlerProperties.Journal journalProps = properties.getJournal();
+        if (journalProps.isEnabled()) {
+            Path dir = journalProps.getDir().resolve(crawlId);
+            journal = CrawlJournal.create(dir, journalProps.getCheckpointEvery(), seenUrls);
+            frontier = new JournaledFrontier(frontier, journal);
         }
-
-        for (Future<?> future : futures) {
-            try {
-                future.get();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException e) {
-                loggingService.log("ERROR: ошибка в одном из потоков краулера: " + e.getMessage());
+        frontier = cluster.shard(crawlId, frontier, seenUrls);
+
+        CrawlContext context = new CrawlContext(
+                properties.getMaxPages(), frontier, seenUrls, 0, properties.getJobs().getEventBuffer());
+        cluster.register(crawlId, context, frontier);
+        for (String url : startUrls) {
+            String canonical = canonicalizer.canonicalize(url);
+            if (canonical != null) {
+                context.offer(canonical);
+            } else {
+                CrawlEvent event = CrawlEvent.of(CrawlEvent.Kind.INVALID_URL, url, "некорректный URL, пропущен");
+                loggingService.log(event.text());
+                context.addEvent(event);
             }
         }
 
-        return statusMessages;
+        return new Crawl(crawlId, context, journal);
     }
 
-    private void workerLoop(List<String> statusMessages) {
-        final int BATCH_SIZE = 50;
-        final List<ContactInfo> buffer = new ArrayList<>(BATCH_SIZE);
-
-        String url;
-
-        try {
-            while ((url = urlQueue.poll()) != null) {
-
-                if (visitedUrls.size() >= MAX_PAGES) {
-                    break;
-                }
-
-                if (!visitedUrls.add(url)) {
-                    continue;
-                }
-
-                try {
-                    String html = webClient
-                            .get()
-                            .uri(url)
-                            .retrieve()
-                            .bodyToMono(String.class)
-                            .block(Duration.ofSeconds(10));
-
-                    if (html == null) {
-                        parseError.increment();
-                        errEmptyHtml.increment();
-
-                        String msg = "WARN: " + url + " — не удалось получить HTML (пустой ответ)";
-                        loggingService.log(msg);
-                        statusMessages.add(msg);
-                        continue;
-                    }
-
-                    Timer.Sample sample = Timer.start();
-                    String email = extractEmail(html);
-                    List<String> phones = extractPhones(html);
-                    List<String> links = extractLinks(html);
-                    sample.stop(parseTimer);
-
-                    parseSuccess.increment();
-
-                    if (email != null || !phones.isEmpty()) {
-                        String phonesStr = String.join(", ", phones);
-
-                        ContactInfo info = new ContactInfo(
-                                url,
-                                url,
-                                phonesStr,
-                                email,
-                                null
-                        );
-
-                        buffer.add(info);
-                        dbSaved.increment();
-
-                        if (buffer.size() >= BATCH_SIZE) {
-                            writerService.saveBatch(buffer);
-                            buffer.clear();
-                        }
-
-                        String msg = "OK: " + url + " — телефонов: "
-                                + phones.size() + ", email: " + (email != null ? email : "нет");
-                        loggingService.log(msg);
-                        statusMessages.add(msg);
-
-                    } else {
-                        String msg = "WARN: " + url
-                                + " — телефоны и email не найдены в HTML. "
-                                + "Возможно, контакты подгружаются через JavaScript "
-                                + "или страница использует нестандартную верстку.";
-                        loggingService.log(msg);
-                        statusMessages.add(msg);
-                    }
-
-                    for (String link : links) {
-                        if (!visitedUrls.contains(link)) {
-                            urlQueue.offer(link);
-                        }
-                    }
-
-                } catch (Exception e) {
-                    parseError.increment();
-                    incrementErrorReason(e);
+    // После перезапуска продолжаем обходы, журналы которых остались на диске
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedCrawls() {
+        CrawlerProperties.Journal journalProps = properties.getJournal();
+        if (!journalProps.isEnabled() || !Files.isDirectory(journalProps.getDir())) {
+            return;
+        }
 
-                    String msg = "ERROR: " + url
-                            + " — ошибка при загрузке: " + e.getClass().getSimpleName() + " - " + e.getMessage();
-                    loggingService.log(msg);
-                    statusMessages.add(msg);
-                }
-            }
-        } finally {
-            if (!buffer.isEmpty()) {
-                writerService.saveBatch(buffer);
-                buffer.clear();
-            }
+        List<Path> dirs;
+        try (Stream<Path> files = Files.list(journalProps.getDir())) {
+            dirs = files.filter(CrawlJournal::exists).toList();
+        } catch (IOException e) {
+            loggingService.log("ERROR: не удалось прочитать каталог журналов обхода: " + e.getMessage());
+            return;
         }
-    }
 
-    private void incrementErrorReason(Throwable e) {
-        String reason = classifyErrorReason(e);
-        switch (reason) {
-            case "http_4xx" -> errHttp4xx.increment();
-            case "http_5xx" -> errHttp5xx.increment();
-            case "timeout" -> errTimeout.increment();
-            case "connection" -> errConnection.increment();
-            case "empty_html" -> errEmptyHtml.increment();
-            default -> errOther.increment();
+        for (Path dir : dirs) {
+            Thread resumeThread = new Thread(() -> resume(dir), "crawler-resume-" + dir.getFileName());
+            resumeThread.setDaemon(true);
+            resumeThread.start();
         }
     }
 
-    private String classifyErrorReason(Throwable e) {
-        if (e instanceof WebClientResponseException wcre) {
-            HttpStatusCode status = wcre.getStatusCode();
-            if (status.is4xxClientError()) return "http_4xx";
-            if (status.is5xxServerError()) return "http_5xx";
-            return "other";
-        }
+    private void resume(Path dir) {
+        CrawlJournal journal = CrawlJournal.open(dir, properties.getJournal().getCheckpointEvery(), this::newSeenFilter);
+        JournaledFrontier journaled = new JournaledFrontier(newFrontier(), journal);
+        journaled.restore();
 
-        if (e instanceof WebClientRequestException) {
-            if (hasCause(e, ConnectException.class) || hasCause(e, UnknownHostException.class)) {
-                return "connection";
-            }
-        }
+        String crawlId = dir.getFileName().toString();
+        Frontier frontier = cluster.shard(crawlId, journaled, journal.getSeenUrls());
+        CrawlContext context = new CrawlContext(
+                properties.getMaxPages(), frontier, journal.getSeenUrls(), journal.getPagesDone(),
+                properties.getJobs().getEventBuffer());
+        cluster.register(crawlId, context, frontier);
 
-        if (hasCause(e, TimeoutException.class) || hasCause(e, java.util.concurrent.TimeoutException.class)) {
-            return "timeout";
-        }
-        if (e.getMessage() != null && e.getMessage().toLowerCase().contains("timeout")) {
-            return "timeout";
-        }
-
-        return "other";
-    }
+        loggingService.log("INFO: продолжаем прерванный обход " + crawlId
+                + ". Обработано страниц: " + journal.getPagesDone() + ", в очереди: " + frontier.size());
 
-    private boolean hasCause(Throwable e, Class<? extends Throwable> causeClass) {
-        Throwable cur = e;
-        while (cur != null) {
-            if (causeClass.isInstance(cur)) return true;
-            cur = cur.getCause();
+        for (String msg : run(new Crawl(crawlId, context, journal))) {
+            loggingService.log("RESUMED: " + msg);
         }
-        return false;
     }
 
-    private String extractEmail(String html) {
-        String text = html.replaceAll("<[^>]*>", " ");
-        Matcher matcher = EMAIL_PATTERN.matcher(text);
-        if (matcher.find()) {
-            return matcher.group();
+    public List<String> run(Crawl crawl) {
+        CrawlContext context = crawl.context();
+        CrawlJournal journal = crawl.journal();
+        CrawlEngine engine = engines.get(properties.getMode());
+        metrics.trackSeenFilter(context.getSeenUrls());
+        try {
+            engine.run(context);
+            // Дальше ссылки других узлов не попадают в очередь, а ждут продолжения запуска
+            cluster.finish(crawl.id(), context.isDrained());
+            if (!context.isFinished() && !Thread.currentThread().isInterrupted()) {
+                // Ссылки, пришедшие между последней проверкой очереди и finish()
+                engine.run(context);
+            }
+            // Результат запуска возвращается, когда его контакты уже в БД
+            writeBehind.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            metrics.untrackSeenFilter(context.getSeenUrls());
+            context.closeEvents();
+
+            if (journal != null) {
+                // Журнал удаляется у завершённого или отменённого обхода; прерванный остаётся для продолжения
+                if (context.isDrained() || context.isBudgetExhausted() || context.isCancelled()) {
+                    journal.delete();
+                } else {
+                    journal.close();
+                }
+            }
+            // После журнала: продолжение запуска создаёт журнал с тем же id
+            cluster.unregister(crawl.id());
         }
-        return null;
-    }
 
-    private List<String> extractPhones(String html) {
-        String text = html
-                .replace("&nbsp;", " ")
-                .replace("&#160;", " ");
-
-        text = text.replaceAll("<[^>]*>", " ");
-
-        java.util.Map<String, String> phonesMap = new java.util.LinkedHashMap<>();
-
-        java.util.regex.Matcher matcher = PHONE_PATTERN.matcher(text);
-        while (matcher.find()) {
-            String raw = matcher.group().trim();
-            String digits = raw.replaceAll("\\D+", "");
-
-            if (digits.length() < 10 || digits.length() > 15) {
-                continue;
-            }
+        return context.getStatusMessages();
+    }
 
-            String key = digits.substring(digits.length() - 10);
-            phonesMap.putIfAbsent(key, raw);
+    // Запуск отменён до начала обхода: журнал больше не нужен
+    public void discard(Crawl crawl) {
+        cluster.unregister(crawl.id());
+        crawl.context().closeEvents();
+        if (crawl.journal() != null) {
+            crawl.journal().delete();
         }
+    }
 
-        return new java.util.ArrayList<>(phonesMap.values());
+    private Frontier newFrontier() {
+        CrawlerProperties.Politeness politeness = properties.getPoliteness();
+        return new HostFrontier(politeness.getHostRate(), politeness.getHostBurst());
     }
 
-    private List<String> extractLinks(String html) {
-        List<String> links = new ArrayList<>();
-        Matcher matcher = LINK_PATTERN.matcher(html);
-        while (matcher.find()) {
-            String link = matcher.group(1);
-            links.add(link);
-        }
-        return links;
+    private UrlSeenFilter newSeenFilter() {
+        CrawlerProperties.Seen seen = properties.getSeen();
+        return new UrlSeenFilter(seen.getExpectedUrls(), seen.getFalsePositiveRate(), seen.getMaxMemory().toBytes());
     }
 
     // Автоматический запуск краулера по расписанию
@@ -0,0 +1,127 @@
+package com.pingme.contactcrawler.cluster;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.crawler.CrawlContext;
+import com.pingme.contactcrawler.frontier.Frontier;
+import com.pingme.contactcrawler.frontier.HostFrontier;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.frontier.Urls;
+import com.pingme.contactcrawler.logging.LoggingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterCoordinatorTest {
+
+    private static final String CRAWL_ID = "7f0c5a4e-1b2d-4c3e-9f80-0a1b2c3d4e5f";
+    private static final String SELF = "http://localhost:8080";
+    private static final List<String> NODES = List.of(SELF, "http://localhost:8081");
+
+    private final ClusterCoordinator coordinator = new ClusterCoordinator(
+            properties(), (node, batch) -> { }, new LoggingService());
+
+    private static CrawlerProperties properties() {
+        CrawlerProperties properties = new CrawlerProperties();
+        CrawlerProperties.Cluster cluster = properties.getCluster();
+        cluster.setEnabled(true);
+        cluster.setSelf(SELF);
+        cluster.setNodes(NODES);
+        return properties;
+    }
+
+    private CrawlContext register() {
+        UrlSeenFilter seenUrls = new UrlSeenFilter(1000, 0.01, 1 << 20);
+        Frontier frontier = coordinator.shard(CRAWL_ID, new HostFrontier(100, 100), seenUrls);
+        CrawlContext context = new CrawlContext(100, frontier, seenUrls);
+        coordinator.register(CRAWL_ID, context, frontier);
+        return context;
+    }
+
+    // Первый из URL, хост которого закреплён за этим узлом
+    private static String localUrl() {
+        HashRing ring = new HashRing(NODES, properties().getCluster().getVirtualNodes());
+        for (int i = 0; ; i++) {
+            String url = "https://site" + i + ".ru/contacts";
+            if (SELF.equals(ring.owner(Urls.host(url)))) {
+                return url;
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        coordinator.shutdown();
+    }
+
+    @Test
+    void deliver_shouldOfferUrlsToRunningCrawl() {
+        // positive: пакет для идущего запуска попадает в его очередь
+        CrawlContext context = register();
+
+        ClusterCoordinator.Delivery delivery = coordinator.deliver(new UrlBatch(CRAWL_ID, List.of(localUrl())));
+
+        assertThat(delivery).isEqualTo(ClusterCoordinator.Delivery.DELIVERED);
+        assertThat(context.getQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    void deliver_shouldContinueFinishedCrawlWithItsSeenUrls_whenBatchArrivesLate() throws Exception {
+        // positive: пакет, пришедший пока запуск дописывал результаты, не теряется и не попадает в его очередь,
+        // а после окончания отдаётся продолжению; продолжение получает фильтр посещённых URL запуска
+        CompletableFuture<UrlBatch> late = new CompletableFuture<>();
+        coordinator.onLateBatch(late::complete);
+        CrawlContext context = register();
+
+        coordinator.finish(CRAWL_ID, true);
+        UrlBatch batch = new UrlBatch(CRAWL_ID, List.of(localUrl()));
+        assertThat(coordinator.deliver(batch)).isEqualTo(ClusterCoordinator.Delivery.DELIVERED);
+        assertThat(context.getQueueSize()).isZero();
+
+        coordinator.unregister(CRAWL_ID);
+
+        assertThat(late.get(5, TimeUnit.SECONDS).urls()).isEqualTo(batch.urls());
+        assertThat(coordinator.deliver(batch)).isEqualTo(ClusterCoordinator.Delivery.CONTINUE);
+        assertThat(coordinator.takeSeenUrls(CRAWL_ID)).isSameAs(context.getSeenUrls());
+        assertThat(coordinator.takeSeenUrls(CRAWL_ID)).isNull();
+    }
+
+    @Test
+    void deliver_shouldDropBatch_whenCrawlWasStoppedOrGracePeriodIsOver() {
+        // negative: отменённый (или упёршийся в лимит) запуск не продолжается, оконченный давно - тоже
+        register();
+        coordinator.finish(CRAWL_ID, false);
+        coordinator.unregister(CRAWL_ID);
+        UrlBatch batch = new UrlBatch(CRAWL_ID, List.of(localUrl()));
+
+        assertThat(coordinator.deliver(batch)).isEqualTo(ClusterCoordinator.Delivery.DROPPED);
+
+        CrawlerProperties noGrace = properties();
+        noGrace.getCluster().setFinishedGrace(Duration.ZERO);
+        ClusterCoordinator expired = new ClusterCoordinator(noGrace, (node, b) -> { }, new LoggingService());
+        try {
+            UrlSeenFilter seenUrls = new UrlSeenFilter(1000, 0.01, 1 << 20);
+            Frontier frontier = expired.shard(CRAWL_ID, new HostFrontier(100, 100), seenUrls);
+            expired.register(CRAWL_ID, new CrawlContext(100, frontier, seenUrls), frontier);
+            expired.finish(CRAWL_ID, true);
+            expired.unregister(CRAWL_ID);
+
+            assertThat(expired.deliver(batch)).isEqualTo(ClusterCoordinator.Delivery.DROPPED);
+            assertThat(expired.takeSeenUrls(CRAWL_ID)).isNull();
+        } finally {
+            expired.shutdown();
+        }
+    }
+
+    @Test
+    void deliver_shouldReportUnknownCrawl() {
+        // negative: запуска с таким id на узле не было - его нужно начать
+        assertThat(coordinator.deliver(new UrlBatch(CRAWL_ID, List.of(localUrl()))))
+                .isEqualTo(ClusterCoordinator.Delivery.UNKNOWN);
+    }
+}
@@ -0,0 +1,48 @@
+package com.pingme.contactcrawler.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRingTest {
+
+    private static final List<String> NODES = List.of(
+            "http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+
+    @Test
+    void owner_shouldSpreadHostsEvenly_andGiveSameAnswerOnEveryNode() {
+        // positive: кольцо строится одинаково на всех узлах, хосты делятся примерно поровну
+        HashRing ring = new HashRing(NODES, 128);
+        HashRing sameOnOtherNode = new HashRing(NODES, 128);
+
+        Map<String, Integer> hostsPerNode = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String host = "site" + i + ".ru";
+            assertThat(sameOnOtherNode.owner(host)).isEqualTo(ring.owner(host));
+            hostsPerNode.merge(ring.owner(host), 1, Integer::sum);
+        }
+
+        assertThat(hostsPerNode).containsOnlyKeys(NODES);
+        assertThat(hostsPerNode.values()).allSatisfy(count -> assertThat(count).isBetween(700, 1300));
+    }
+
+    @Test
+    void owner_shouldMoveOnlyNewNodeShare_whenNodeAdded() {
+        // negative: новый узел не перетасовывает хосты между старыми узлами
+        HashRing before = new HashRing(NODES, 128);
+        HashRing after = new HashRing(List.of(
+                "http://localhost:8080", "http://localhost:8081", "http://localhost:8082", "http://localhost:8083"), 128);
+
+        for (int i = 0; i < 3000; i++) {
+            String host = "site" + i + ".ru";
+            String owner = after.owner(host);
+            if (!owner.equals("http://localhost:8083")) {
+                assertThat(owner).isEqualTo(before.owner(host));
+            }
+        }
+    }
+}
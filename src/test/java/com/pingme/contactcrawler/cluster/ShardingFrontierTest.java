@@ -0,0 +1,116 @@
+package com.pingme.contactcrawler.cluster;
+
+import com.pingme.contactcrawler.crawler.CrawlContext;
+import com.pingme.contactcrawler.frontier.HostFrontier;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.frontier.Urls;
+import com.pingme.contactcrawler.logging.LoggingService;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardingFrontierTest {
+
+    private static final List<String> NODES = List.of(
+            "http://localhost:8080", "http://localhost:8081", "http://localhost:8082");
+
+    private final HashRing ring = new HashRing(NODES, 128);
+    private final Map<String, HostFrontier> frontiers = new HashMap<>();
+    private final Map<String, ShardingFrontier> sharded = new HashMap<>();
+    private final Map<String, CrawlContext> contexts = new HashMap<>();
+
+    // Три узла в одном процессе: транспорт сразу отдаёт пакет запуску узла-получателя
+    private void startCluster(ClusterTransport transport) {
+        for (String node : NODES) {
+            HostFrontier local = new HostFrontier(100, 100);
+            UrlSeenFilter seenUrls = new UrlSeenFilter(1000, 0.01, 1 << 20);
+            ShardingFrontier frontier = new ShardingFrontier(
+                    "crawl-1", local, seenUrls, ring, node, transport, Runnable::run, 4, new LoggingService());
+            frontiers.put(node, local);
+            sharded.put(node, frontier);
+            contexts.put(node, new CrawlContext(100, frontier, seenUrls));
+        }
+    }
+
+    @Test
+    void offer_shouldQueueEachUrlOnceOnOwnerNode_whenLinksFoundOnAnyNode() {
+        // positive: ссылки с любого узла попадают в очередь владельца хоста, повторы отсекает владелец
+        startCluster((node, batch) -> batch.urls().forEach(contexts.get(node)::offer));
+
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 30; i++) {
+            String url = "https://site" + i + ".ru/contacts";
+            expected.merge(ring.owner(Urls.host(url)), 1, Integer::sum);
+            contexts.get(NODES.get(0)).offer(url);
+            contexts.get(NODES.get(1)).offer(url);
+        }
+        sharded.values().forEach(ShardingFrontier::flush);
+
+        for (String node : NODES) {
+            assertThat(frontiers.get(node).size()).isEqualTo(expected.getOrDefault(node, 0));
+            // Фильтр посещённых URL узла - только для его хостов
+            assertThat(contexts.get(node).getSeenUrls().size()).isEqualTo(expected.getOrDefault(node, 0));
+        }
+    }
+
+    @Test
+    void offer_shouldKeepUrlsLocally_whenOwnerNodeUnavailable() {
+        // negative: узел не отвечает - его URL обходятся на этом узле, а не теряются
+        startCluster((node, batch) -> {
+            throw new IllegalStateException("connection refused");
+        });
+
+        for (int i = 0; i < 30; i++) {
+            contexts.get(NODES.get(0)).offer("https://site" + i + ".ru/contacts");
+        }
+        sharded.get(NODES.get(0)).flush();
+
+        assertThat(frontiers.get(NODES.get(0)).size()).isEqualTo(30);
+    }
+
+    @Test
+    void flush_shouldNotQueueUrlTwice_whenUnavailableNodeUrlsAreKeptLocally() {
+        // negative: URL недоступного узла, оставленные себе, проходят фильтр посещённых URL - повторы отсекаются
+        startCluster((node, batch) -> {
+            throw new IllegalStateException("connection refused");
+        });
+        String self = NODES.get(0);
+        String url = remoteUrl(self);
+
+        for (int i = 0; i < 3; i++) {
+            contexts.get(self).offer(url);
+            sharded.get(self).flush();
+        }
+
+        assertThat(frontiers.get(self).size()).isEqualTo(1);
+        assertThat(contexts.get(self).getSeenUrls().mightContain(url)).isTrue();
+    }
+
+    @Test
+    void close_shouldDropUrlsOfUnavailableNode_whenCrawlIsOver() {
+        // negative: запуск окончен - ссылки недоступного узла не возвращаются в уже закрытую очередь
+        startCluster((node, batch) -> {
+            throw new IllegalStateException("connection refused");
+        });
+        String self = NODES.get(0);
+        contexts.get(self).offer(remoteUrl(self));
+
+        sharded.get(self).close();
+
+        assertThat(frontiers.get(self).isEmpty()).isTrue();
+    }
+
+    // Первый из URL, хост которого закреплён за другим узлом
+    private String remoteUrl(String self) {
+        for (int i = 0; ; i++) {
+            String url = "https://site" + i + ".ru/contacts";
+            if (!self.equals(ring.owner(Urls.host(url)))) {
+                return url;
+            }
+        }
+    }
+}
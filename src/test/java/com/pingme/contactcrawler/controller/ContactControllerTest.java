@@ -1,16 +1,33 @@
 package com.pingme.contactcrawler.controller;
 
+import com.pingme.contactcrawler.dto.ContactPage;
 import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.repository.ContactCursor;
 import com.pingme.contactcrawler.repository.ContactInfoRepository;
+import com.pingme.contactcrawler.search.ContactSearchService;
+import com.pingme.contactcrawler.service.ContactExportService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,6 +36,12 @@ class ContactControllerTest {
     @Mock
     private ContactInfoRepository contactInfoRepository;
 
+    @Mock
+    private ContactExportService contactExportService;
+
+    @Mock
+    private ContactSearchService contactSearchService;
+
     @InjectMocks
     private ContactController contactController;
 
@@ -34,11 +57,9 @@ class ContactControllerTest {
                 "Москва"
         );
 
-        when(contactInfoRepository
-                .findByNameContainingIgnoreCaseOrWebsiteContainingIgnoreCase(query, query))
-                .thenReturn(List.of(contact));
+        when(contactSearchService.search(query, 50)).thenReturn(List.of(contact));
 
-        List<ContactInfo> result = contactController.search(query);
+        List<ContactInfo> result = contactController.search(query, 50);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getName()).isEqualTo("Netology");
@@ -50,23 +71,62 @@ class ContactControllerTest {
         // negative: ничего не нашлось
         String query = "abracadabra";
 
-        when(contactInfoRepository
-                .findByNameContainingIgnoreCaseOrWebsiteContainingIgnoreCase(query, query))
-                .thenReturn(List.of());
+        when(contactSearchService.search(query, 50)).thenReturn(List.of());
 
-        List<ContactInfo> result = contactController.search(query);
+        List<ContactInfo> result = contactController.search(query, 50);
 
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void search_shouldRejectQuery_whenShorterThanThreeCharacters() {
+        // negative: 1-2 символа -> 400, поиск не выполняется
+        assertThatThrownBy(() -> contactController.search(" мв ", 50))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("400");
+        verify(contactSearchService, never()).search(any(), anyInt());
+    }
+
+    @Test
+    void byPhone_shouldLookUpByLastTenDigits_whateverTheFormat() {
+        // positive: номер в другом формате находит запись
+        ContactInfo contact = new ContactInfo("Билайн", "https://beeline.ru", "+7 800 700 8000", null, null);
+        when(contactSearchService.byPhone("8007008000")).thenReturn(List.of(contact));
+
+        List<ContactInfo> result = contactController.byPhone("8 (800) 700-80-00");
+
+        assertThat(result).containsExactly(contact);
+        assertThat(contact.getPhoneKeys()).containsExactly("8007008000");
+    }
+
+    @Test
+    void byPhone_shouldRejectValueWithoutDigits() {
+        // negative: в "номере" нет цифр -> 400, БД не запрашивается
+        assertThatThrownBy(() -> contactController.byPhone("нет номера"))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(contactSearchService, never()).byPhone(any());
+    }
+
+    @Test
+    void byEmail_shouldIgnoreCase() {
+        // positive: адрес сравнивается в нижнем регистре
+        ContactInfo contact = new ContactInfo("Билайн", "https://beeline.ru", null, "support@beeline.ru", null);
+        when(contactSearchService.byEmail("support@beeline.ru")).thenReturn(List.of(contact));
+
+        assertThat(contactController.byEmail(" Support@Beeline.ru ")).containsExactly(contact);
+    }
+
     @Test
     void answer_shouldSortByNameAscAndPaginate() {
-        // positive: сортировка по name asc + базовая пагинация
-        ContactInfo c1 = new ContactInfo("МВидео", "https://mvideo.ru", "1", "a@mvideo.ru", null);
+        // positive: сортировка по name asc + базовая пагинация выполняются в БД, порядок id сохраняется
         ContactInfo c2 = new ContactInfo("Билайн", "https://beeline.ru", "2", "b@beeline.ru", null);
         ContactInfo c3 = new ContactInfo("Авито", "https://avito.ru", "3", "c@avito.ru", null);
+        c2.setId(2L);
+        c3.setId(3L);
 
-        when(contactInfoRepository.findAll()).thenReturn(List.of(c1, c2, c3));
+        PageRequest expected = PageRequest.of(0, 2, Sort.by("name").and(Sort.by("id")));
+        when(contactInfoRepository.findPageIds(expected)).thenReturn(List.of(3L, 2L));
+        when(contactInfoRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(c2, c3));
 
         List<ContactInfo> page = contactController.answer(
                 "name",   // sortBy
@@ -92,7 +152,9 @@ class ContactControllerTest {
         c2.setId(5L);
         c3.setId(7L);
 
-        when(contactInfoRepository.findAll()).thenReturn(List.of(c1, c2, c3));
+        PageRequest expected = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id"));
+        when(contactInfoRepository.findPageIds(expected)).thenReturn(List.of(10L, 7L, 5L));
+        when(contactInfoRepository.findAllById(List.of(10L, 7L, 5L))).thenReturn(List.of(c1, c2, c3));
 
         List<ContactInfo> result = contactController.answer(
                 "unknownField", // sortBy невалидный
@@ -108,12 +170,8 @@ class ContactControllerTest {
 
     @Test
     void answer_shouldReturnEmptyList_whenPageOutOfRange() {
-        // negative: запрошена страница за пределами списка
-        ContactInfo c1 = new ContactInfo("A", "https://a.ru", "1", null, null);
-        ContactInfo c2 = new ContactInfo("B", "https://b.ru", "2", null, null);
-        ContactInfo c3 = new ContactInfo("C", "https://c.ru", "3", null, null);
-
-        when(contactInfoRepository.findAll()).thenReturn(List.of(c1, c2, c3));
+        // negative: запрошена страница за пределами списка - строки не читаются
+        when(contactInfoRepository.findPageIds(any(Pageable.class))).thenReturn(List.of());
 
         List<ContactInfo> result = contactController.answer(
                 "name",
@@ -123,5 +181,65 @@ class ContactControllerTest {
         );
 
         assertThat(result).isEmpty();
+        verify(contactInfoRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void answer_shouldRejectRequest_whenSizeIsNotPositive() {
+        // negative: size = 0 или отрицательная страница -> 400, а не ошибка PageRequest (500)
+        assertThatThrownBy(() -> contactController.answer("id", "asc", 0, 0))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("400");
+        assertThatThrownBy(() -> contactController.answer("id", "asc", -1, 10))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(contactInfoRepository, never()).findPageIds(any());
+    }
+
+    @Test
+    void cursor_shouldReturnNextCursorAfterLastItem_whenMoreRowsExist() {
+        // positive: строк больше, чем size -> курсор указывает на последнюю выданную
+        ContactInfo c1 = new ContactInfo("Авито", "https://avito.ru", "1", null, null);
+        ContactInfo c2 = new ContactInfo("Билайн", "https://beeline.ru", "2", null, null);
+        ContactInfo c3 = new ContactInfo("МВидео", "https://mvideo.ru", "3", null, null);
+        c1.setId(1L);
+        c2.setId(2L);
+        c3.setId(3L);
+
+        when(contactInfoRepository.findAfter(ContactCursor.start("name", false), 3))
+                .thenReturn(List.of(c1, c2, c3));
+
+        ContactPage page = contactController.cursor(null, "name", "asc", 2);
+
+        assertThat(page.items()).containsExactly(c1, c2);
+        assertThat(ContactCursor.decode(page.nextCursor()))
+                .isEqualTo(new ContactCursor("name", false, 2L, "Билайн"));
+    }
+
+    @Test
+    void cursor_shouldRejectBrokenCursor() {
+        // negative: курсор подделан или повреждён -> 400
+        assertThatThrownBy(() -> contactController.cursor("not-a-cursor", "id", "asc", 10))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void export_shouldStreamCsv_whenCsvFormatRequested() throws Exception {
+        // positive: формат csv -> text/csv, тело пишет сервис выгрузки прямо в ответ
+        ResponseEntity<StreamingResponseBody> response = contactController.export("csv");
+
+        assertThat(response.getHeaders().getContentType()).isNotNull();
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv")))
+                .isTrue();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(contactExportService).export(ContactExportService.Format.CSV, out);
+    }
+
+    @Test
+    void export_shouldRejectUnknownFormat() {
+        // negative: неизвестный формат -> 400
+        assertThatThrownBy(() -> contactController.export("xml"))
+                .isInstanceOf(ResponseStatusException.class);
     }
 }
@@ -0,0 +1,81 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.frontier.FrontierUrl;
+import com.pingme.contactcrawler.frontier.HostFrontier;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrawlContextTest {
+
+    private final CrawlContext context =
+            new CrawlContext(10, new HostFrontier(100, 100), new UrlSeenFilter(1000, 0.01, 1 << 20));
+
+    @Test
+    void streamEvents_shouldReplayHistoryThenLiveEvents_andCompleteWhenClosed() throws Exception {
+        // positive: подписчик получает уже случившиеся события, затем новые, без пропусков и повторов
+        context.addEvent(CrawlEvent.of(CrawlEvent.Kind.INVALID_URL, "ftp://a.ru", "некорректный URL, пропущен"));
+        context.addEvent(CrawlEvent.contacts("https://a.ru", List.of("+79991234567"), "info@a.ru", "телефонов: 1"));
+
+        CompletableFuture<List<CrawlEvent>> received = context.streamEvents(10, 10).collectList().toFuture();
+        context.addEvent(CrawlEvent.of(CrawlEvent.Kind.FETCH_ERROR, "https://b.ru", "ошибка при загрузке"));
+        context.closeEvents();
+
+        List<CrawlEvent> events = received.get(5, TimeUnit.SECONDS);
+        assertThat(events).extracting(CrawlEvent::seq).containsExactly(1L, 2L, 3L);
+        assertThat(events).extracting(CrawlEvent::status)
+                .containsExactly(CrawlEvent.Status.WARN, CrawlEvent.Status.OK, CrawlEvent.Status.ERROR);
+        assertThat(events.get(1).phones()).containsExactly("+79991234567");
+        assertThat(events.get(1).email()).isEqualTo("info@a.ru");
+        assertThat(context.getStatusMessages().get(1)).isEqualTo("OK: https://a.ru — телефонов: 1");
+    }
+
+    @Test
+    void streamEvents_shouldReplayOnlyLastEvents_whenHistoryIsLongerThanReplay() {
+        // negative: подключившийся после завершения запуска видит только последние replay событий
+        for (int i = 0; i < 5; i++) {
+            context.addEvent(CrawlEvent.of(CrawlEvent.Kind.NO_CONTACTS, "https://a.ru/" + i, "не найдены"));
+        }
+        context.closeEvents();
+
+        List<CrawlEvent> events = context.streamEvents(2, 10).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(events).extracting(CrawlEvent::url).containsExactly("https://a.ru/3", "https://a.ru/4");
+    }
+
+    @Test
+    void addEvent_shouldKeepOnlyLastEventHistory_andContinueNumbering() {
+        // negative: история ограничена - старые события вытесняются, номера не начинаются заново
+        CrawlContext bounded = new CrawlContext(
+                10, new HostFrontier(100, 100), new UrlSeenFilter(1000, 0.01, 1 << 20), 0, 3);
+        for (int i = 0; i < 5; i++) {
+            bounded.addEvent(CrawlEvent.of(CrawlEvent.Kind.NO_CONTACTS, "https://a.ru/" + i, "не найдены"));
+        }
+        bounded.closeEvents();
+
+        assertThat(bounded.getEvents()).extracting(CrawlEvent::seq).containsExactly(3L, 4L, 5L);
+        assertThat(bounded.getStatusMessages()).hasSize(3);
+        assertThat(bounded.streamEvents(10, 10).collectList().block(Duration.ofSeconds(5)))
+                .extracting(CrawlEvent::url)
+                .containsExactly("https://a.ru/2", "https://a.ru/3", "https://a.ru/4");
+    }
+
+    @Test
+    void offerLinks_shouldQueueLinksOneLevelDeeperThanPage() throws InterruptedException {
+        // positive: глубина страницы приходит из очереди вместе с URL, её ссылки - на уровень глубже
+        context.offer("https://a.ru");
+        FrontierUrl page = context.nextUrl(1, TimeUnit.SECONDS);
+
+        context.offerLinks(page, new PageResult(page.url(), null, List.of("https://a.ru/contacts")));
+        context.pageDone(page.url());
+
+        assertThat(page.depth()).isZero();
+        assertThat(context.nextUrl(1, TimeUnit.SECONDS)).isEqualTo(new FrontierUrl("https://a.ru/contacts", 1));
+    }
+}
@@ -0,0 +1,91 @@
+package com.pingme.contactcrawler.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageBodyReaderTest {
+
+    private static final String HTML = """
+            <p>Отдел продаж: +7 495 123-45-67</p>
+            <p>Почта: продажи — sales@a.ru</p>
+            <a href="/about">О компании</a>""";
+
+    // Тело приходит порциями по chunkSize байт
+    private static PageBody read(PageBodyReader reader, byte[] body, int chunkSize) {
+        for (int from = 0; from < body.length; from += chunkSize) {
+            reader.accept(ByteBuffer.wrap(Arrays.copyOfRange(body, from, Math.min(body.length, from + chunkSize))));
+        }
+        return reader.finish();
+    }
+
+    @Test
+    void finish_shouldGiveSameResultAsWholePage_whenCharactersSplitBetweenChunks() {
+        // positive: порции по 3 байта режут двухбайтовые символы UTF-8 пополам
+        byte[] body = HTML.getBytes(StandardCharsets.UTF_8);
+        PageBody whole = PageBody.parse(HTML);
+
+        PageBody chunked = read(
+                new PageBodyReader(StandardCharsets.UTF_8, Long.MAX_VALUE, false, false), body, 3);
+
+        assertThat(chunked.hash()).isEqualTo(whole.hash());
+        assertThat(chunked.bytes()).isEqualTo(body.length);
+        assertThat(chunked.isTruncated()).isFalse();
+        assertThat(chunked.contacts().getEmail()).isEqualTo("sales@a.ru");
+        assertThat(chunked.contacts().getPhones()).containsExactly("+7 495 123-45-67");
+        assertThat(chunked.contacts().getLinks()).containsExactly("/about");
+    }
+
+    @Test
+    void accept_shouldStopReading_whenByteBudgetReached() {
+        // negative: бюджет кончился на телефоне -> дальше не читаем, email не найден
+        byte[] body = HTML.getBytes(StandardCharsets.UTF_8);
+        PageBodyReader reader = new PageBodyReader(StandardCharsets.UTF_8, 64, false, false);
+
+        boolean more = true;
+        int from = 0;
+        while (more && from < body.length) {
+            more = reader.accept(ByteBuffer.wrap(Arrays.copyOfRange(body, from, Math.min(body.length, from + 16))));
+            from += 16;
+        }
+        PageBody page = reader.finish();
+
+        assertThat(page.bytes()).isEqualTo(64);
+        assertThat(page.stopReason()).isEqualTo(PageBody.BYTE_BUDGET);
+        assertThat(page.contacts().getPhones()).containsExactly("+7 495 123-45-67");
+        assertThat(page.contacts().getEmail()).isNull();
+    }
+
+    @Test
+    void accept_shouldStopReading_whenContactFoundAndStopWhenFoundEnabled() {
+        // positive: первый контакт найден -> чтение остановлено, остаток страницы не нужен
+        byte[] body = HTML.getBytes(StandardCharsets.UTF_8);
+        PageBodyReader reader = new PageBodyReader(StandardCharsets.UTF_8, Long.MAX_VALUE, true, false);
+
+        reader.accept(ByteBuffer.wrap(Arrays.copyOfRange(body, 0, 70)));
+        PageBody page = reader.finish();
+
+        assertThat(page.stopReason()).isEqualTo(PageBody.CONTACTS_FOUND);
+        assertThat(page.contacts().hasContacts()).isTrue();
+    }
+
+    @Test
+    void finish_shouldTakeCharsetFromMeta_whenHeaderHasNone() {
+        // positive: страница в windows-1251 без charset в Content-Type, кодировка указана в <meta>
+        Charset cp1251 = Charset.forName("windows-1251");
+        byte[] body = ("<html><head><meta http-equiv=\"Content-Type\" content=\"text/html; charset=windows-1251\">"
+                + "</head><body><a href=\"/о-нас\">О нас</a> " + HTML + "</body></html>").getBytes(cp1251);
+
+        PageBody bytes = read(new PageBodyReader(null, Long.MAX_VALUE, false, true), body, 100);
+        PageBody chars = read(new PageBodyReader(null, Long.MAX_VALUE, false, false), body, 100);
+
+        assertThat(bytes.contacts().getLinks()).containsExactly("/о-нас", "/about");
+        assertThat(chars.contacts().getLinks()).containsExactly("/о-нас", "/about");
+        assertThat(bytes.contacts().getEmail()).isEqualTo("sales@a.ru");
+    }
+}
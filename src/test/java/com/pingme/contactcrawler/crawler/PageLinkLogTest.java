@@ -0,0 +1,44 @@
+package com.pingme.contactcrawler.crawler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageLinkLogTest {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void read_shouldReturnAppendedLinks() throws IOException {
+        // positive: ссылки читаются по позиции записи, пустой список на диск не пишется
+        try (PageLinkLog log = new PageLinkLog(dir, 1 << 20)) {
+            PageLinkLog.Ref first = log.append(List.of("https://a.ru/about", "https://a.ru/контакты"));
+            PageLinkLog.Ref second = log.append(List.of("https://b.ru/"));
+
+            assertThat(log.read(first)).containsExactly("https://a.ru/about", "https://a.ru/контакты");
+            assertThat(log.read(second)).containsExactly("https://b.ru/");
+            assertThat(log.append(List.of())).isEqualTo(PageLinkLog.EMPTY);
+            assertThat(log.read(PageLinkLog.EMPTY)).isEmpty();
+        }
+    }
+
+    @Test
+    void read_shouldReturnNull_whenFileWasRotatedTwice() throws IOException {
+        // negative: файл ограничен по размеру, предыдущий ещё читается, более старые удаляются
+        try (PageLinkLog log = new PageLinkLog(dir, 64)) {
+            PageLinkLog.Ref oldest = log.append(List.of("https://a.ru/" + "x".repeat(40)));
+            PageLinkLog.Ref previous = log.append(List.of("https://b.ru/" + "x".repeat(40)));
+            log.append(List.of("https://c.ru/" + "x".repeat(40)));
+
+            assertThat(log.isReadable(oldest)).isFalse();
+            assertThat(log.read(oldest)).isNull();
+            assertThat(log.read(previous)).containsExactly("https://b.ru/" + "x".repeat(40));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.frontier.UrlCanonicalizer;
+import com.pingme.contactcrawler.logging.LoggingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PageProcessorTest {
+
+    private static final String URL = "https://a.ru/contacts";
+    private static final String HTML = """
+            <p>Тел.: +7 800 700-80-00, info@a.ru</p>
+            <a href="/about">О нас</a>""";
+
+    @TempDir
+    private Path dir;
+
+    private final CrawlContext context = mock(CrawlContext.class);
+    private PageValidatorStore store;
+    private PageProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getRecrawl().setLinksDir(dir);
+        store = new PageValidatorStore(properties, new LoggingService());
+        processor = new PageProcessor(
+                new CrawlerMetrics(), new LoggingService(), new UrlCanonicalizer(List.of()), store);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void process_shouldParseAndRememberPage_whenFetchedFirstTime() {
+        // positive: первая загрузка -> контакт, ссылки и валидаторы страницы запомнены
+        PageResult result = processor.process(
+                new FetchedPage(URL, PageBody.parse(HTML), "\"v1\"", null, false), context);
+
+        assertThat(result.contact()).isNotNull();
+        assertThat(result.links()).containsExactly("https://a.ru/about");
+        assertThat(store.get(URL).etag()).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    void process_shouldReturnStoredLinks_whenServerRepliedNotModified() {
+        // positive: страница со ссылками запрашивается условно; ответ 304 -> без контакта (уже в БД),
+        // ссылки - сохранённые при прошлой загрузке
+        processor.process(new FetchedPage(URL, PageBody.parse(HTML), "\"v1\"", null, false), context);
+
+        PageResult result = processor.process(FetchedPage.notModified(URL), context);
+
+        assertThat(store.conditional(URL)).isNotNull();
+        assertThat(result.contact()).isNull();
+        assertThat(result.links()).containsExactly("https://a.ru/about");
+    }
+
+    @Test
+    void process_shouldReturnLinksFromBody_whenBodyUnchanged() {
+        // positive: страница без валидаторов грузится безусловно, при том же теле ссылки берутся из него
+        processor.process(new FetchedPage(URL, PageBody.parse(HTML), null, null, false), context);
+
+        PageResult result = processor.process(
+                new FetchedPage(URL, PageBody.parse(HTML), null, null, false), context);
+
+        assertThat(store.conditional(URL)).isNull();
+        assertThat(result.contact()).isNull();
+        assertThat(result.links()).containsExactly("https://a.ru/about");
+    }
+
+    @Test
+    void process_shouldParseAgain_whenBodyChanged() {
+        // negative: тот же URL без валидаторов, но тело другое -> страница разбирается заново
+        processor.process(new FetchedPage(URL, PageBody.parse(HTML), null, null, false), context);
+
+        PageResult same = processor.process(new FetchedPage(URL, PageBody.parse(HTML), null, null, false), context);
+        PageResult changed = processor.process(
+                new FetchedPage(URL, PageBody.parse("<p>sales@a.ru</p>"), null, null, false), context);
+
+        assertThat(same.contact()).isNull();
+        assertThat(changed.contact()).isNotNull();
+        assertThat(changed.contact().getEmail()).isEqualTo("sales@a.ru");
+    }
+}
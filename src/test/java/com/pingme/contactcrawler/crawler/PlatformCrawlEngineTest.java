@@ -0,0 +1,122 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.frontier.HostFrontier;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.logging.LoggingService;
+import com.pingme.contactcrawler.service.ContactWriteBehind;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlatformCrawlEngineTest {
+
+    private final PageFetcher pageFetcher = mock(PageFetcher.class);
+    private final PageProcessor pageProcessor = mock(PageProcessor.class);
+    private final Queue<String> finished = new ConcurrentLinkedQueue<>();
+    private PlatformCrawlEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        // Каждая страница "грузится" 20 мс и не содержит ни контактов, ни ссылок
+        when(pageFetcher.fetch(anyString())).thenAnswer(inv -> Mono.fromCallable(() -> {
+            Thread.sleep(20);
+            return new FetchedPage(inv.getArgument(0), null, null, null, false);
+        }));
+        when(pageProcessor.process(any(), any()))
+                .thenAnswer(inv -> PageResult.empty(inv.<FetchedPage>getArgument(0).url()));
+
+        engine = startEngine(1);
+    }
+
+    private PlatformCrawlEngine startEngine(int workers) {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.setWorkers(workers);
+        PlatformCrawlEngine started = new PlatformCrawlEngine(
+                pageFetcher, pageProcessor, mock(ContactWriteBehind.class), new LoggingService(), properties);
+        started.start();
+        return started;
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    private static CrawlContext session(String host, int pages, int maxPages) {
+        CrawlContext context = new CrawlContext(
+                maxPages, new HostFrontier(1000, 1000), new UrlSeenFilter(1000, 0.01, 1 << 20));
+        for (int i = 0; i < pages; i++) {
+            context.offer("https://" + host + "/page" + i);
+        }
+        return context;
+    }
+
+    private Thread runAsync(String name, CrawlContext context) {
+        Thread thread = new Thread(() -> {
+            engine.run(context);
+            finished.add(name);
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    void run_shouldShareWorkersBetweenSessions_insteadOfWaitingForPreviousCrawl() throws InterruptedException {
+        // positive: короткий обход, начатый позже длинного, не ждёт его окончания
+        CrawlContext big = session("big.ru", 30, 100);
+        CrawlContext small = session("small.ru", 2, 100);
+
+        Thread bigRun = runAsync("big", big);
+        Thread.sleep(50);
+        Thread smallRun = runAsync("small", small);
+        bigRun.join(10_000);
+        smallRun.join(10_000);
+
+        assertThat(finished).containsExactly("small", "big");
+        assertThat(big.getPagesDone()).isEqualTo(30);
+        assertThat(small.getPagesDone()).isEqualTo(2);
+    }
+
+    @Test
+    void run_shouldKeepBudgetOfEachSessionSeparate() throws InterruptedException {
+        // negative: лимит страниц одной сессии не расходуется страницами другой
+        CrawlContext first = session("a.ru", 10, 3);
+        CrawlContext second = session("b.ru", 10, 3);
+
+        List<Thread> runs = List.of(runAsync("first", first), runAsync("second", second));
+        for (Thread run : runs) {
+            run.join(10_000);
+        }
+
+        assertThat(first.getPagesDone()).isEqualTo(3);
+        assertThat(second.getPagesDone()).isEqualTo(3);
+        assertThat(first.getQueueSize()).isEqualTo(7);
+    }
+
+    @Test
+    void run_shouldReturn_whenQueueDrainsBeforeMaxPagesWithSeveralWorkers() throws InterruptedException {
+        // negative: стартовая страница без ссылок, лимит не исчерпан - воркеры, ждущие URL, не держат обход
+        engine.shutdown();
+        engine = startEngine(4);
+        CrawlContext context = session("a.ru", 1, 100);
+
+        Thread run = runAsync("single", context);
+        run.join(5_000);
+
+        assertThat(run.isAlive()).isFalse();
+        assertThat(finished).containsExactly("single");
+        assertThat(context.getPagesDone()).isEqualTo(1);
+    }
+}
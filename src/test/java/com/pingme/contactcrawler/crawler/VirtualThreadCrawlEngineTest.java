@@ -0,0 +1,60 @@
+package com.pingme.contactcrawler.crawler;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.frontier.HostFrontier;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.service.ContactWriteBehind;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VirtualThreadCrawlEngineTest {
+
+    private final PageFetcher pageFetcher = mock(PageFetcher.class);
+    private final PageProcessor pageProcessor = mock(PageProcessor.class);
+    private final Queue<String> fetched = new ConcurrentLinkedQueue<>();
+
+    private VirtualThreadCrawlEngine engine(int maxConcurrency, int maxPerHost) {
+        // Страницы slow.ru "грузятся" 200 мс, остальные - сразу; ни контактов, ни ссылок
+        when(pageFetcher.fetch(anyString())).thenAnswer(inv -> Mono.fromCallable(() -> {
+            String url = inv.getArgument(0);
+            if (url.contains("slow.ru")) {
+                Thread.sleep(200);
+            }
+            fetched.add(url);
+            return new FetchedPage(url, null, null, null, false);
+        }));
+        when(pageProcessor.process(any(), any()))
+                .thenAnswer(inv -> PageResult.empty(inv.<FetchedPage>getArgument(0).url()));
+
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getVirtual().setMaxConcurrency(maxConcurrency);
+        properties.getVirtual().setMaxPerHost(maxPerHost);
+        return new VirtualThreadCrawlEngine(pageFetcher, pageProcessor, mock(ContactWriteBehind.class), properties);
+    }
+
+    @Test
+    void run_shouldNotHoldGlobalSlots_whileWaitingForBusyHost() {
+        // positive: URL занятого хоста ждут в его очереди, и свободное общее место достаётся другому хосту
+        VirtualThreadCrawlEngine engine = engine(2, 1);
+        CrawlContext context = new CrawlContext(
+                100, new HostFrontier(1000, 1000), new UrlSeenFilter(1000, 0.01, 1 << 20));
+        for (int i = 0; i < 4; i++) {
+            context.offer("https://slow.ru/page" + i);
+        }
+        context.offer("https://fast.ru/");
+
+        engine.run(context);
+
+        assertThat(fetched.peek()).isEqualTo("https://fast.ru/");
+        assertThat(context.getPagesDone()).isEqualTo(5);
+    }
+}
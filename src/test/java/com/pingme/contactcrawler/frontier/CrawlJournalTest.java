@@ -0,0 +1,94 @@
+package com.pingme.contactcrawler.frontier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrawlJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static UrlSeenFilter newFilter() {
+        return new UrlSeenFilter(1000, 0.001, 1024 * 1024);
+    }
+
+    @Test
+    void open_shouldRestorePendingAndSeenUrls_fromLog() {
+        // positive: после "падения" без checkpoint состояние восстанавливается из лога
+        UrlSeenFilter seen = newFilter();
+        CrawlJournal journal = CrawlJournal.create(dir, 1000, seen);
+        for (String url : new String[]{"https://a.ru/", "https://a.ru/contacts", "https://b.ru/"}) {
+            seen.add(url);
+            journal.enqueued(url);
+        }
+        journal.completed("https://a.ru/");
+        journal.close();
+
+        CrawlJournal restored = CrawlJournal.open(dir, 1000, CrawlJournalTest::newFilter);
+
+        assertThat(restored.getPendingUrls()).containsExactly("https://a.ru/contacts", "https://b.ru/");
+        assertThat(restored.getPagesDone()).isEqualTo(1);
+        assertThat(restored.getSeenUrls().mightContain("https://a.ru/")).isTrue();
+        restored.close();
+    }
+
+    @Test
+    void open_shouldCombineCheckpointAndNewerLog_whenCheckpointTaken() {
+        // positive: часть состояния в снимке, часть - в логе после него
+        UrlSeenFilter seen = newFilter();
+        CrawlJournal journal = CrawlJournal.create(dir, 2, seen);
+        for (int i = 0; i < 5; i++) {
+            String url = "https://site.ru/page" + i;
+            seen.add(url);
+            journal.enqueued(url);
+        }
+        journal.completed("https://site.ru/page0");
+        journal.completed("https://site.ru/page3");
+        journal.close();
+
+        CrawlJournal restored = CrawlJournal.open(dir, 2, CrawlJournalTest::newFilter);
+
+        assertThat(restored.getPendingUrls())
+                .containsExactly("https://site.ru/page1", "https://site.ru/page2", "https://site.ru/page4");
+        assertThat(restored.getPagesDone()).isEqualTo(2);
+        assertThat(restored.getSeenUrls().mightContain("https://site.ru/page3")).isTrue();
+        restored.close();
+    }
+
+    @Test
+    void checkpoint_shouldReplaceOldLog_whenSnapshotWrittenInBackground() {
+        // positive: снимок пишется в фоне; close() его дожидается, старый лог удалён только после снимка
+        UrlSeenFilter seen = newFilter();
+        CrawlJournal journal = CrawlJournal.create(dir, 1000, seen);
+        seen.add("https://a.ru/");
+        journal.enqueued("https://a.ru/");
+        journal.checkpoint();
+        seen.add("https://b.ru/");
+        journal.enqueued("https://b.ru/");
+        journal.close();
+
+        assertThat(dir.resolve("checkpoint.bin")).exists();
+        assertThat(dir.resolve("journal-0.log")).doesNotExist();
+        assertThat(dir.resolve("checkpoint.bin.tmp")).doesNotExist();
+
+        CrawlJournal restored = CrawlJournal.open(dir, 1000, CrawlJournalTest::newFilter);
+
+        assertThat(restored.getPendingUrls()).containsExactly("https://a.ru/", "https://b.ru/");
+        assertThat(restored.getSeenUrls().mightContain("https://b.ru/")).isTrue();
+        restored.close();
+    }
+
+    @Test
+    void delete_shouldRemoveJournal_whenCrawlFinished() {
+        // negative: завершённый обход не продолжается после перезапуска
+        CrawlJournal journal = CrawlJournal.create(dir, 1000, newFilter());
+        journal.enqueued("https://a.ru/");
+        journal.delete();
+
+        assertThat(CrawlJournal.exists(dir)).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package com.pingme.contactcrawler.frontier;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HostFrontierTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void poll_shouldSwitchToAnotherHost_whenFirstHostIsRateLimited() throws InterruptedException {
+        // positive: a.ru исчерпал токен, воркер получает URL b.ru без ожидания
+        HostFrontier frontier = new HostFrontier(1.0, 1, clock::get);
+        frontier.offer("https://a.ru/1");
+        frontier.offer("https://a.ru/2");
+        frontier.offer("https://b.ru/1");
+
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/1", 0));
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://b.ru/1", 0));
+        assertThat(frontier.size()).isEqualTo(1);
+    }
+
+    @Test
+    void poll_shouldReturnNull_untilHostTokenIsRefilled() throws InterruptedException {
+        // negative: второй запрос к тому же хосту раньше чем через 1/rate секунд не выдаётся
+        HostFrontier frontier = new HostFrontier(1.0, 1, clock::get);
+        frontier.offer("https://a.ru/1");
+        frontier.offer("https://a.ru/2");
+
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/1", 0));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isNull();
+        assertThat(frontier.isEmpty()).isFalse();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/2", 0));
+        assertThat(frontier.isEmpty()).isTrue();
+    }
+
+    @Test
+    void poll_shouldReturnContactPagesFirst_whenTheyHaveHigherPriority() throws InterruptedException {
+        // positive: лимит страниц тратится сначала на страницы контактов, в том числе другого хоста
+        HostFrontier frontier = new HostFrontier(1.0, 10, clock::get);
+        frontier.offer("https://a.ru/news/1", -30);
+        frontier.offer("https://a.ru/catalog", -30);
+        frontier.offer("https://b.ru/about", 50);
+        frontier.offer("https://a.ru/contacts", 100);
+
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/contacts", 0));
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://b.ru/about", 0));
+        // При равном приоритете - по порядку добавления
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/news/1", 0));
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/catalog", 0));
+    }
+
+    @Test
+    void poll_shouldReturnUrlWithItsDepth_whenOfferedWithDepth() throws InterruptedException {
+        // positive: глубина хранится в элементе очереди и выдаётся вместе с URL
+        HostFrontier frontier = new HostFrontier(1.0, 10, clock::get);
+        frontier.offer("https://a.ru/contacts", 100, 2);
+        frontier.offer("https://a.ru/", 0);
+
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/contacts", 2));
+        assertThat(frontier.poll(0, TimeUnit.NANOSECONDS)).isEqualTo(new FrontierUrl("https://a.ru/", 0));
+    }
+}
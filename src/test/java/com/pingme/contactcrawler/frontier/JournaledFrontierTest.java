@@ -0,0 +1,37 @@
+package com.pingme.contactcrawler.frontier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournaledFrontierTest {
+
+    @TempDir
+    Path dir;
+
+    private static UrlSeenFilter newFilter() {
+        return new UrlSeenFilter(1000, 0.001, 1024 * 1024);
+    }
+
+    @Test
+    void restore_shouldScoreUrlsAgain_afterRestart() throws InterruptedException {
+        // positive: приоритет в журнал не пишется, но после восстановления контактная страница всё равно первая
+        CrawlJournal journal = CrawlJournal.create(dir, 1000, newFilter());
+        JournaledFrontier frontier = new JournaledFrontier(new HostFrontier(1000, 1000), journal);
+        frontier.offer("https://a.ru/news", LinkScorer.score("https://a.ru/news", 1, 0));
+        frontier.offer("https://a.ru/contacts", LinkScorer.score("https://a.ru/contacts", 1, 0));
+        journal.close();
+
+        CrawlJournal reopened = CrawlJournal.open(dir, 1000, JournaledFrontierTest::newFilter);
+        JournaledFrontier restored = new JournaledFrontier(new HostFrontier(1000, 1000), reopened);
+        restored.restore();
+
+        assertThat(restored.poll(1, TimeUnit.SECONDS)).isEqualTo(new FrontierUrl("https://a.ru/contacts", 0));
+        assertThat(restored.poll(1, TimeUnit.SECONDS)).isEqualTo(new FrontierUrl("https://a.ru/news", 0));
+        reopened.close();
+    }
+}
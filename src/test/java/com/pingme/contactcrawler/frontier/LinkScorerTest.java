@@ -0,0 +1,37 @@
+package com.pingme.contactcrawler.frontier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinkScorerTest {
+
+    @Test
+    void score_shouldRankContactPagesAboveAboutAndNews_whenOnSameDepth() {
+        // positive: контакты (в том числе кириллицей в %-кодировке) > о компании > обычная > новости
+        int contacts = LinkScorer.score("https://a.ru/kontakty", 1, 0);
+        int cyrillic = LinkScorer.score("https://a.ru/%D0%9A%D0%BE%D0%BD%D1%82%D0%B0%D0%BA%D1%82%D1%8B", 1, 0);
+        int about = LinkScorer.score("https://a.ru/o-kompanii/", 1, 0);
+        int plain = LinkScorer.score("https://a.ru/services", 1, 0);
+        int news = LinkScorer.score("https://a.ru/news/2024/10", 1, 0);
+
+        assertThat(cyrillic).isEqualTo(contacts);
+        assertThat(contacts).isGreaterThan(about);
+        assertThat(about).isGreaterThan(plain);
+        assertThat(plain).isGreaterThan(news);
+        // Ссылки tel:/mailto: на странице-источнике поднимают её ссылки
+        assertThat(LinkScorer.score("https://a.ru/services", 1, 3)).isGreaterThan(plain);
+    }
+
+    @Test
+    void score_shouldIgnoreWordsInHostAndPreferShallowPages_whenNoKeywordsInPath() {
+        // negative: "contact" в имени хоста - не страница контактов; глубже - ниже
+        int host = LinkScorer.score("https://contact-center.ru/", 0, 0);
+        int deep = LinkScorer.score("https://contact-center.ru/a/b", 3, 0);
+
+        assertThat(host).isEqualTo(LinkScorer.score("https://a.ru/", 0, 0));
+        assertThat(deep).isLessThan(host);
+        assertThat(LinkScorer.isContactLink("TEL:+74951234567")).isTrue();
+        assertThat(LinkScorer.isContactLink("/contacts")).isFalse();
+    }
+}
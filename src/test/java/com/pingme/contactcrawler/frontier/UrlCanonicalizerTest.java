@@ -0,0 +1,64 @@
+package com.pingme.contactcrawler.frontier;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlCanonicalizerTest {
+
+    private final UrlCanonicalizer canonicalizer = new UrlCanonicalizer(List.of("utm_*", "gclid"));
+
+    @Test
+    void canonicalize_shouldMapVariantsOfSamePageToOneUrl() {
+        // positive: регистр хоста, "/" в конце, якорь, порт по умолчанию и utm-метки не различают страницы
+        assertThat(List.of(
+                "https://x.ru/contacts",
+                "https://x.ru/contacts/",
+                "https://X.ru/contacts#top",
+                "https://x.ru:443/contacts?utm_source=mail&gclid=abc"
+        )).allSatisfy(url -> assertThat(canonicalizer.canonicalize(url)).isEqualTo("https://x.ru/contacts"));
+    }
+
+    @Test
+    void canonicalize_shouldKeepNonTrackingQueryParams() {
+        // positive: обычные параметры остаются в исходном порядке
+        assertThat(canonicalizer.canonicalize("http://x.ru:8080/list?page=2&utm_medium=cpc&sort=name"))
+                .isEqualTo("http://x.ru:8080/list?page=2&sort=name");
+    }
+
+    @Test
+    void canonicalize_shouldResolveRelativeHrefAgainstPageUrl() {
+        // positive: относительные ссылки
+        String page = "https://x.ru/company/about";
+
+        assertThat(canonicalizer.canonicalize(page, "contacts/")).isEqualTo("https://x.ru/company/contacts");
+        assertThat(canonicalizer.canonicalize(page, "/kontakty")).isEqualTo("https://x.ru/kontakty");
+        assertThat(canonicalizer.canonicalize(page, "//cdn.x.ru/a")).isEqualTo("https://cdn.x.ru/a");
+    }
+
+    @Test
+    void canonicalize_shouldReturnNull_forNonWebLinks() {
+        // negative: mailto/tel/javascript и относительная ссылка без базы
+        String page = "https://x.ru/";
+
+        assertThat(canonicalizer.canonicalize(page, "mailto:info@x.ru")).isNull();
+        assertThat(canonicalizer.canonicalize(page, "tel:+78007008000")).isNull();
+        assertThat(canonicalizer.canonicalize(page, "javascript:void(0)")).isNull();
+        assertThat(canonicalizer.canonicalize("/contacts")).isNull();
+    }
+
+    @Test
+    void canonicalize_shouldConvertCyrillicDomainToPunycode() {
+        // positive: домен .рф - в punycode, кириллический путь - в %-кодировку; ссылка не теряется
+        String page = "http://Сайт.рф/контакты/";
+
+        assertThat(canonicalizer.canonicalize(page))
+                .isEqualTo("http://xn--80aswg.xn--p1ai/%D0%BA%D0%BE%D0%BD%D1%82%D0%B0%D0%BA%D1%82%D1%8B");
+        assertThat(canonicalizer.canonicalize(page, "/о-нас?utm_source=x"))
+                .isEqualTo("http://xn--80aswg.xn--p1ai/%D0%BE-%D0%BD%D0%B0%D1%81");
+        assertThat(canonicalizer.canonicalize("http://xn--80aswg.xn--p1ai/контакты"))
+                .isEqualTo(canonicalizer.canonicalize(page));
+    }
+}
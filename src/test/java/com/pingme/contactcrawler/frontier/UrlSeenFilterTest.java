@@ -0,0 +1,42 @@
+package com.pingme.contactcrawler.frontier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UrlSeenFilterTest {
+
+    @Test
+    void add_shouldReturnFalse_whenUrlAlreadySeen() {
+        // positive: повторный URL отсекается
+        UrlSeenFilter filter = new UrlSeenFilter(1_000, 0.001, 1 << 20);
+
+        assertThat(filter.add("https://netology.ru/contacts")).isTrue();
+        assertThat(filter.add("https://netology.ru/contacts")).isFalse();
+        assertThat(filter.mightContain("https://netology.ru/contacts")).isTrue();
+        assertThat(filter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void add_shouldGrowAndKeepFalsePositiveRateNearTarget_whenCapacityExceeded() {
+        // positive: фильтр на 1000 URL принимает 100 000 и остаётся в пределах памяти
+        UrlSeenFilter filter = new UrlSeenFilter(1_000, 0.001, 1 << 20);
+
+        for (int i = 0; i < 100_000; i++) {
+            filter.add("https://site" + (i % 100) + ".ru/page/" + i);
+        }
+
+        assertThat(filter.size()).isGreaterThan(99_000);
+        assertThat(filter.memoryBytes()).isLessThanOrEqualTo(1 << 20);
+        assertThat(filter.falsePositiveRate()).isLessThan(0.002);
+    }
+
+    @Test
+    void mightContain_shouldReturnFalse_forUnseenUrl() {
+        // negative: URL не добавлялся
+        UrlSeenFilter filter = new UrlSeenFilter(1_000, 0.001, 1 << 20);
+        filter.add("https://beeline.ru");
+
+        assertThat(filter.mightContain("https://mvideo.ru")).isFalse();
+    }
+}
@@ -0,0 +1,84 @@
+package com.pingme.contactcrawler.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactExtractorTest {
+
+    @Test
+    void extract_shouldFindEmailPhonesAndLinks_inSinglePass() {
+        // positive: контакты разбиты тегами и сущностями
+        String html = """
+                <html><body>
+                <a href="https://netology.ru/contacts?a=1&amp;b=2">Контакты</a>
+                <p>Тел.: 8&nbsp;(800)<b>301-39-69</b>, +7 495 123-45-67</p>
+                <p>Почта: support&#64;netology.ru</p>
+                <A HREF='HTTP://example.ru'>пример</A>
+                </body></html>
+                """;
+
+        PageContacts contacts = new PageContacts();
+        ContactExtractor.extract(html, contacts);
+
+        assertThat(contacts.getEmail()).isEqualTo("support@netology.ru");
+        assertThat(contacts.getPhones()).containsExactly("8 (800) 301-39-69", "+7 495 123-45-67");
+        assertThat(contacts.getLinks())
+                .containsExactly("https://netology.ru/contacts?a=1&b=2", "HTTP://example.ru");
+    }
+
+    @Test
+    void extract_shouldDeduplicatePhonesByLastTenDigits() {
+        // positive: один номер в разных форматах
+        String html = "<p>+7 800 700 8000</p><p>8 (800) 700-80-00</p>";
+
+        PageContacts contacts = new PageContacts();
+        ContactExtractor.extract(html, contacts);
+
+        assertThat(contacts.getPhones()).containsExactly("+7 800 700 8000");
+    }
+
+    @Test
+    void extract_shouldIgnoreContactsInsideTagsAndComments() {
+        // negative: email в атрибуте и комментарии не считается текстом страницы
+        String html = "<!-- admin@hidden.ru --><img alt=\"a@b.ru\" src=\"/logo.png\"><a href=\"/relative\">x</a>";
+
+        PageContacts contacts = new PageContacts();
+        ContactExtractor.extract(html, contacts);
+
+        assertThat(contacts.hasContacts()).isFalse();
+        assertThat(contacts.getLinks()).containsExactly("/relative");
+    }
+
+    @Test
+    void feedBytes_shouldFindSameContactsAsStringPath_inUtf8AndWindows1251() {
+        // positive: неразрывные пробелы в номере и кириллица в ссылке - в обеих кодировках
+        String html = "<p>Звоните: 8\u00A0800\u00A0301-39-69, пишите: почта@нет, info@сайт.рф или sales@site.ru</p>"
+                + "<a href=\"/контакты?город=Москва\">Контакты</a>";
+        PageContacts expected = new PageContacts();
+        ContactExtractor.extract(html, expected);
+
+        for (Charset charset : new Charset[]{StandardCharsets.UTF_8, Charset.forName("windows-1251")}) {
+            assertThat(ContactExtractor.supportsBytes(charset)).isTrue();
+
+            PageContacts contacts = new PageContacts();
+            ContactExtractor extractor = new ContactExtractor(contacts, charset);
+            extractor.feed(ByteBuffer.wrap(html.getBytes(charset)));
+            extractor.finish();
+
+            assertThat(contacts.getEmail()).isEqualTo(expected.getEmail()).isEqualTo("sales@site.ru");
+            assertThat(contacts.getPhones()).isEqualTo(expected.getPhones()).containsExactly("8 800 301-39-69");
+            assertThat(contacts.getLinks()).containsExactly("/контакты?город=Москва");
+        }
+    }
+
+    @Test
+    void supportsBytes_shouldRejectCharsetsWhereAsciiBytesAreNotAscii() {
+        // negative: в UTF-16 байты ASCII не означают символы ASCII - нужен разбор через декодер
+        assertThat(ContactExtractor.supportsBytes(StandardCharsets.UTF_16)).isFalse();
+    }
+}
@@ -0,0 +1,74 @@
+package com.pingme.contactcrawler.repository;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// База из application.yml (IGNORECASE, DEFAULT_NULL_ORDERING=HIGH), а не встроенная по умолчанию:
+// от этих флагов зависит порядок строк, на который опирается findAfter
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ContactInfoRepositoryTest {
+
+    @Autowired
+    private ContactInfoRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Одинаковые названия в разном регистре и пустые названия - границы страниц попадают внутрь групп
+        String[] names = {"Альфа", "альфа", "Бета", null, null, "Гамма", "Альфа", null, "бета", "АЛЬФА"};
+        for (int i = 0; i < names.length; i++) {
+            repository.save(new ContactInfo(names[i], "https://keyset" + i + ".ru", null, null, null));
+        }
+    }
+
+    // Все строки таблицы страницами по pageSize, как их листает /api/contacts/cursor
+    private List<Long> pageThrough(ContactCursor cursor, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        while (true) {
+            List<ContactInfo> page = repository.findAfter(cursor, pageSize);
+            page.forEach(c -> ids.add(c.getId()));
+            if (page.size() < pageSize) {
+                return ids;
+            }
+            cursor = cursor.after(page.get(page.size() - 1));
+        }
+    }
+
+    private List<Long> expectedOrder(boolean descending) {
+        Comparator<ContactInfo> order = Comparator
+                .comparing(ContactInfo::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(ContactInfo::getId);
+        return repository.findAll().stream()
+                .sorted(descending ? order.reversed() : order)
+                .map(ContactInfo::getId)
+                .toList();
+    }
+
+    @Test
+    void findAfter_shouldReturnEveryRowOnce_whenPagingByNameAscWithTiesAndNulls() {
+        // positive: по name asc без учёта регистра, пустые в конце; ни одна строка не пропущена и не повторена
+        List<Long> ids = pageThrough(ContactCursor.start("name", false), 3);
+
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids).containsExactlyElementsOf(expectedOrder(false));
+    }
+
+    @Test
+    void findAfter_shouldReturnEveryRowOnce_whenPagingByNameDescWithTiesAndNulls() {
+        // negative: обратный порядок - пустые названия в начале, курсор внутри группы null не теряет строки
+        List<Long> ids = pageThrough(ContactCursor.start("name", true), 2);
+
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids).containsExactlyElementsOf(expectedOrder(true));
+    }
+}
@@ -0,0 +1,56 @@
+package com.pingme.contactcrawler.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactSearchIndexTest {
+
+    private ContactSearchIndex index() {
+        ContactSearchIndex index = new ContactSearchIndex();
+        index.put(1, "Домашний интернет Билайн", "https://beeline.ru");
+        index.put(2, "МВидео", "https://www.mvideo.ru");
+        index.put(3, "Билайн", "https://moskva.beeline.ru/customers/contact-page");
+        index.put(4, "Барбершоп Москва", "https://barbershop.ru");
+        return index;
+    }
+
+    @Test
+    void search_shouldFindSubstringIgnoringCase_andRankExactNameFirst() {
+        // positive: кириллица в другом регистре; точное совпадение названия - первым
+        assertThat(index().search("БИЛАЙН", 10)).containsExactly(3L, 1L);
+        assertThat(index().search("mvideo", 10)).containsExactly(2L);
+        assertThat(index().search("москва", 10)).containsExactly(4L);
+    }
+
+    @Test
+    void search_shouldRespectLimit_andUpdatedDocuments() {
+        // positive: limit ограничивает выдачу, изменённое название переиндексируется
+        ContactSearchIndex index = index();
+        assertThat(index.search("beeline", 1)).hasSize(1);
+
+        index.put(2, "Эльдорадо", "https://eldorado.ru");
+        assertThat(index.search("mvideo", 10)).isEmpty();
+        assertThat(index.search("эльдо", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void search_shouldReturnNothing_whenTrigramsMatchButNotAsSubstring() {
+        // negative: все триграммы запроса есть в тексте, но не подряд
+        ContactSearchIndex index = new ContactSearchIndex();
+        index.put(1, "abcd xbcy", "https://site.ru");
+
+        assertThat(index.search("abcy", 10)).isEmpty();
+    }
+
+    @Test
+    void search_shouldNotMatchEveryDocument_whenQueryIsSchemeOrTooShort() {
+        // negative: схема сайта не индексируется, запрос короче 3 символов не перебирает все документы
+        ContactSearchIndex index = index();
+
+        assertThat(index.search("https", 10)).isEmpty();
+        assertThat(index.search("://", 10)).isEmpty();
+        assertThat(index.search("ru", 10)).isEmpty();
+        assertThat(index.search("beeline.ru/cust", 10)).containsExactly(3L);
+    }
+}
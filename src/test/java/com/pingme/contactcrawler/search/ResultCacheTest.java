@@ -0,0 +1,65 @@
+package com.pingme.contactcrawler.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private String load(String key) {
+        loads.incrementAndGet();
+        return key.toUpperCase();
+    }
+
+    @Test
+    void get_shouldLoadOnce_untilTtlExpires() {
+        // positive: повторный запрос - из кэша, после TTL - загрузка заново
+        ResultCache<String, String> cache = new ResultCache<>("test", 10, Duration.ofSeconds(1), now::get);
+
+        assertThat(cache.get("билайн", this::load)).isEqualTo("БИЛАЙН");
+        assertThat(cache.get("билайн", this::load)).isEqualTo("БИЛАЙН");
+        assertThat(loads).hasValue(1);
+
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        cache.get("билайн", this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_shouldEvictLeastRecentlyUsed_whenFull() {
+        // positive: при переполнении вытесняется давно не запрошенный ключ
+        ResultCache<String, String> cache = new ResultCache<>("test", 2, Duration.ofMinutes(1), now::get);
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("a", this::load);
+        cache.get("c", this::load);
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.get("a", this::load);
+        assertThat(loads).hasValue(3);
+        cache.get("b", this::load);
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void invalidate_shouldDropOnlyMatchingKeys() {
+        // negative: запись, не затрагивающая ключ, не сбрасывает его результат
+        ResultCache<String, String> cache = new ResultCache<>("test", 10, Duration.ofMinutes(1), now::get);
+        cache.get("mvideo", this::load);
+        cache.get("beeline", this::load);
+
+        cache.invalidate(key -> "beeline.ru".contains(key));
+
+        cache.get("mvideo", this::load);
+        assertThat(loads).hasValue(2);
+        cache.get("beeline", this::load);
+        assertThat(loads).hasValue(3);
+    }
+}
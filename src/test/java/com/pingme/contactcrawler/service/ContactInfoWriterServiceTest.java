@@ -0,0 +1,103 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.repository.ContactInfoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactInfoWriterServiceTest {
+
+    @Mock
+    private ContactInfoRepository repository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private ContactInfoWriterService writerService;
+
+    @SuppressWarnings("unchecked")
+    private List<ContactInfo> inserted() {
+        ArgumentCaptor<List<ContactInfo>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void saveBatch_shouldInsertOneRowPerWebsite_whenSameSiteFoundTwice() {
+        // positive: один сайт в разной записи -> одна строка с объединёнными телефонами
+        when(repository.findByWebsiteKeyIn(anyCollection())).thenReturn(List.of());
+
+        writerService.saveBatch(List.of(
+                new ContactInfo("a", "https://www.A.ru/", "+7 800 700 8000", null, null),
+                new ContactInfo("a", "http://a.ru", "8 (800) 700-80-00, +7 495 123-45-67", "info@a.ru", null)
+        ));
+
+        List<ContactInfo> rows = inserted();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getWebsiteKey()).isEqualTo("a.ru");
+        assertThat(rows.get(0).getPhone()).isEqualTo("+7 800 700 8000, +7 495 123-45-67");
+        assertThat(rows.get(0).getEmail()).isEqualTo("info@a.ru");
+    }
+
+    @Test
+    void saveBatch_shouldKeepPathCase_whenOnlyHostCaseDiffers() {
+        // negative: регистр хоста не важен, а пути - важен: /Contacts и /contacts - разные страницы
+        when(repository.findByWebsiteKeyIn(anyCollection())).thenReturn(List.of());
+
+        writerService.saveBatch(List.of(
+                new ContactInfo("a", "HTTPS://WWW.A.ru/Contacts", "+7 800 700 8000", null, null),
+                new ContactInfo("a", "https://a.ru/contacts", "+7 495 123-45-67", null, null)
+        ));
+
+        assertThat(inserted()).extracting(ContactInfo::getWebsiteKey)
+                .containsExactlyInAnyOrder("a.ru/Contacts", "a.ru/contacts");
+    }
+
+    @Test
+    void saveBatch_shouldMergeNewContacts_intoExistingRow() {
+        // positive: новый email добавляется к уже сохранённой записи
+        ContactInfo existing = new ContactInfo("a", "https://a.ru", "+7 800 700 8000", "info@a.ru", null);
+        when(repository.findByWebsiteKeyIn(anyCollection())).thenReturn(List.of(existing));
+
+        writerService.saveBatch(List.of(
+                new ContactInfo("a", "https://a.ru/", "+7 800 700 8000", "sales@a.ru", null)
+        ));
+
+        assertThat(inserted()).isEmpty();
+        assertThat(existing.getPhone()).isEqualTo("+7 800 700 8000");
+        assertThat(existing.getEmail()).isEqualTo("info@a.ru, sales@a.ru");
+    }
+
+    @Test
+    void saveBatch_shouldNotChangeRow_whenNothingNewFound() {
+        // negative: повторный обход с теми же контактами не меняет запись
+        ContactInfo existing = new ContactInfo("a", "https://a.ru", "+7 800 700 8000", "info@a.ru", null);
+        String phones = existing.getPhone();
+        when(repository.findByWebsiteKeyIn(anyCollection())).thenReturn(List.of(existing));
+
+        writerService.saveBatch(List.of(
+                new ContactInfo("a", "https://a.ru", "8 800 700-80-00", "INFO@a.ru", null)
+        ));
+
+        assertThat(inserted()).isEmpty();
+        assertThat(existing.getPhone()).isSameAs(phones);
+        assertThat(existing.getEmail()).isEqualTo("info@a.ru");
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
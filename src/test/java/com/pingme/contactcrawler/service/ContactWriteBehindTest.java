@@ -0,0 +1,110 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.entity.ContactInfo;
+import com.pingme.contactcrawler.logging.LoggingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+class ContactWriteBehindTest {
+
+    private final ContactInfoWriterService writerService = mock(ContactInfoWriterService.class);
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private ContactWriteBehind writeBehind;
+
+    private void start(int batchSize, int queueCapacity) {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.setBatchSize(batchSize);
+        properties.getWriter().setQueueCapacity(queueCapacity);
+        properties.getWriter().setFlushInterval(Duration.ofMillis(50));
+
+        writeBehind = new ContactWriteBehind(writerService, new LoggingService(), properties);
+        writeBehind.start();
+    }
+
+    private static ContactInfo contact(int i) {
+        return new ContactInfo("site" + i, "https://site" + i + ".ru", "8 800 000-00-0" + i, null, null);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void flush_shouldWriteAllSubmittedContacts_inBatchesOfLimitedSize() throws InterruptedException {
+        // positive: 5 контактов при пакете 2 -> всё записано, ни один пакет не больше 2
+        doAnswer(inv -> {
+            synchronized (batchSizes) {
+                batchSizes.add(inv.<List<?>>getArgument(0).size());
+            }
+            return null;
+        }).when(writerService).saveBatch(anyList());
+
+        start(2, 100);
+        for (int i = 0; i < 5; i++) {
+            writeBehind.submit(contact(i));
+        }
+        writeBehind.flush();
+
+        synchronized (batchSizes) {
+            assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(5);
+            assertThat(batchSizes).allMatch(size -> size <= 2);
+        }
+    }
+
+    @Test
+    void submit_shouldWait_whenQueueIsFull() throws InterruptedException {
+        // negative: писатель "завис" на записи, очередь на 1 элемент -> воркер ждёт
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            release.await();
+            return null;
+        }).when(writerService).saveBatch(anyList());
+
+        start(1, 1);
+        writeBehind.submit(contact(1)); // забирает писатель и висит на записи
+        Thread.sleep(100);
+        writeBehind.submit(contact(2)); // занимает единственное место в очереди
+
+        Thread producer = new Thread(() -> {
+            try {
+                writeBehind.submit(contact(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertThat(producer.isAlive()).isTrue();
+
+        release.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(producer.isAlive()).isFalse();
+    }
+
+    @Test
+    void flush_shouldNotHang_whenBatchWriteFails() throws InterruptedException {
+        // negative: ошибка БД не останавливает писателя и не блокирует ожидание
+        doThrow(new IllegalStateException("db is down")).when(writerService).saveBatch(anyList());
+
+        start(10, 100);
+        writeBehind.submit(contact(1));
+        writeBehind.flush();
+
+        writeBehind.submit(contact(2));
+        writeBehind.flush();
+    }
+}
@@ -0,0 +1,122 @@
+package com.pingme.contactcrawler.service;
+
+import com.pingme.contactcrawler.cluster.ClusterCoordinator;
+import com.pingme.contactcrawler.config.CrawlerProperties;
+import com.pingme.contactcrawler.crawler.CrawlContext;
+import com.pingme.contactcrawler.frontier.HostFrontier;
+import com.pingme.contactcrawler.frontier.UrlSeenFilter;
+import com.pingme.contactcrawler.logging.LoggingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CrawlJobServiceTest {
+
+    private final CrawlerService crawlerService = mock(CrawlerService.class);
+    private CrawlJobService jobService;
+
+    private void start(int maxConcurrent) {
+        CrawlerProperties properties = new CrawlerProperties();
+        properties.getJobs().setMaxConcurrent(maxConcurrent);
+
+        when(crawlerService.prepare(anyString(), anyList())).thenAnswer(inv -> new CrawlerService.Crawl(
+                inv.getArgument(0),
+                new CrawlContext(10, new HostFrontier(100, 100), new UrlSeenFilter(1000, 0.01, 1 << 20)),
+                null));
+        ClusterCoordinator cluster = new ClusterCoordinator(properties, (node, batch) -> { }, new LoggingService());
+        jobService = new CrawlJobService(crawlerService, new LoggingService(), cluster, properties);
+    }
+
+    // Обход "работает", пока задание не отменят
+    private void runUntilCancelled() {
+        doAnswer(inv -> {
+            CrawlContext context = inv.<CrawlerService.Crawl>getArgument(0).context();
+            while (!context.isCancelled()) {
+                Thread.sleep(10);
+            }
+            return context.getStatusMessages();
+        }).when(crawlerService).run(any());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void submit_shouldReturnJobAtOnce_andReportProgressWhenDone() throws InterruptedException {
+        // positive: обход идёт в фоне, по окончании видны обработанные страницы и найденные контакты
+        start(2);
+        doAnswer(inv -> {
+            CrawlContext context = inv.<CrawlerService.Crawl>getArgument(0).context();
+            context.offer("https://a.ru");
+            String url = context.nextUrl(1, TimeUnit.SECONDS).url();
+            context.contactFound();
+            context.pageDone(url);
+            return context.getStatusMessages();
+        }).when(crawlerService).run(any());
+
+        CrawlJob job = jobService.submit(List.of("https://a.ru"));
+
+        assertThat(jobService.get(job.getId())).containsSame(job);
+        await(job::isFinished);
+        assertThat(job.getState()).isEqualTo(CrawlJob.State.COMPLETED);
+        assertThat(job.getPagesFetched()).isEqualTo(1);
+        assertThat(job.getContactsFound()).isEqualTo(1);
+        assertThat(job.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void cancel_shouldStopRunningJob() throws InterruptedException {
+        // positive: воркеры видят отмену и обход заканчивается как CANCELLED
+        start(2);
+        runUntilCancelled();
+
+        CrawlJob job = jobService.submit(List.of("https://a.ru"));
+        await(() -> job.getState() == CrawlJob.State.RUNNING);
+        jobService.cancel(job.getId());
+
+        await(job::isFinished);
+        assertThat(job.getState()).isEqualTo(CrawlJob.State.CANCELLED);
+    }
+
+    @Test
+    void cancel_shouldFinishQueuedJobWithoutRunningIt() throws InterruptedException {
+        // negative: задание ещё ждёт свободного места - обход для него не запускается вовсе
+        start(1);
+        runUntilCancelled();
+
+        CrawlJob running = jobService.submit(List.of("https://a.ru"));
+        await(() -> running.getState() == CrawlJob.State.RUNNING);
+        CrawlJob queued = jobService.submit(List.of("https://b.ru"));
+
+        jobService.cancel(queued.getId());
+        assertThat(queued.getState()).isEqualTo(CrawlJob.State.CANCELLED);
+
+        jobService.cancel(running.getId());
+        verify(crawlerService, timeout(5000)).discard(queued.getCrawl());
+        verify(crawlerService, times(1)).run(any());
+    }
+}